@@ -7,6 +7,7 @@ import parseTree.ParseNode;
 import parseTree.ParseTreePrinter;
 import parser.Parser;
 
+import inputHandler.PackedLocation;
 import lexicalAnalyzer.LexicalAnalyzer;
 import lexicalAnalyzer.Scanner;
 import tokens.Tokens;
@@ -34,9 +35,14 @@ public class BilbyAbstractSyntaxTree extends BilbyApplication {
      * @throws FileNotFoundException
      */
     public static void parseFileToAST(String filename, PrintStream out) throws FileNotFoundException {
-        Scanner scanner = LexicalAnalyzer.make(filename);
-        ParseNode syntaxTree = Parser.parse(scanner);
+        int files = PackedLocation.fileMark();
+        try {
+            Scanner scanner = LexicalAnalyzer.make(filename);
+            ParseNode syntaxTree = Parser.parse(scanner);
 
-        out.print(syntaxTree);
+            out.print(syntaxTree);
+        } finally {
+            PackedLocation.releaseFilesTo(files);
+        }
     }
 }
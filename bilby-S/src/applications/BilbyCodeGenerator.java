@@ -6,6 +6,7 @@ import java.io.PrintStream;
 
 import asmCodeGenerator.ASMCodeGenerator;
 import asmCodeGenerator.codeStorage.ASMCodeFragment;
+import inputHandler.PackedLocation;
 import lexicalAnalyzer.LexicalAnalyzer;
 import lexicalAnalyzer.Scanner;
 import parseTree.ParseNode;
@@ -34,11 +35,16 @@ public class BilbyCodeGenerator extends BilbyApplication {
      * @throws FileNotFoundException
      */
     public static void compile(String filename) throws FileNotFoundException {
-        Scanner scanner = LexicalAnalyzer.make(filename);
-        ParseNode syntaxTree = Parser.parse(scanner);
-        ParseNode decoratedTree = SemanticAnalyzer.analyze(syntaxTree);
+        int files = PackedLocation.fileMark();
+        try {
+            Scanner scanner = LexicalAnalyzer.make(filename);
+            ParseNode syntaxTree = Parser.parse(scanner);
+            ParseNode decoratedTree = SemanticAnalyzer.analyze(syntaxTree);
 
-        generateCodeIfNoErrors(filename, decoratedTree);
+            generateCodeIfNoErrors(filename, decoratedTree);
+        } finally {
+            PackedLocation.releaseFilesTo(files);
+        }
     }
 
     private static void generateCodeIfNoErrors(String filename, ParseNode decoratedTree) throws FileNotFoundException {
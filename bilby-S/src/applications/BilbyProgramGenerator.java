@@ -0,0 +1,88 @@
+package applications;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+
+import programGenerator.GeneratedProgram;
+import programGenerator.ProgramGenerator;
+
+public class BilbyProgramGenerator extends BilbyApplication {
+    private static final int EXIT_CODE_FOR_ERROR = 1;
+
+    /**
+     * Writes a generated bilby program (see ProgramGenerator) to a file, and
+     * optionally the output it should print to a file of the same name with
+     * extension .txt, as in the test directories.
+     * <p>
+     * usage: BilbyProgramGenerator filename [-statements n] [-depth n] [-seed
+     * n] [-expected]
+     * 
+     * @param args
+     * @throws FileNotFoundException
+     */
+    public static void main(String[] args) throws FileNotFoundException {
+        if (args.length < 1) {
+            printUsageAndExit("");
+        }
+        String filename = args[0];
+        int statements = ProgramGenerator.DEFAULT_STATEMENTS;
+        int depth = ProgramGenerator.DEFAULT_EXPRESSION_DEPTH;
+        long seed = 0;
+        boolean writeExpected = false;
+
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                case "-statements":
+                    statements = Integer.parseInt(args[++i]);
+                    break;
+                case "-depth":
+                    depth = Integer.parseInt(args[++i]);
+                    break;
+                case "-seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "-expected":
+                    writeExpected = true;
+                    break;
+                default:
+                    printUsageAndExit("Unknown option " + args[i] + ".");
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            printUsageAndExit("Options -statements, -depth and -seed take a number.");
+        }
+
+        GeneratedProgram program = ProgramGenerator.generate(statements, depth, seed);
+        writeFile(filename, program.getText());
+        if (writeExpected) {
+            writeFile(expectedOutputFilename(filename), program.getExpectedOutput());
+        }
+    }
+
+    // the filename with its extension replaced by .txt
+    private static String expectedOutputFilename(String filename) {
+        int lastSeparator = Math.max(filename.lastIndexOf('/'), filename.lastIndexOf('\\'));
+        int dot = filename.lastIndexOf('.');
+        String stem = dot > lastSeparator ? filename.substring(0, dot) : filename;
+        return stem + ".txt";
+    }
+
+    private static void writeFile(String filename, String contents) throws FileNotFoundException {
+        File parent = new File(filename).getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            makeDirectoryIfNecessary(parent.getPath());
+        }
+        try (PrintStream out = new PrintStream(filename)) {
+            out.print(contents);
+        }
+    }
+
+    private static void printUsageAndExit(String errorMessage) {
+        System.err.println("usage: " + className()
+                + " filename [-statements n] [-depth n] [-seed n] [-expected]");
+        System.err.println(errorMessage);
+        System.exit(EXIT_CODE_FOR_ERROR);
+    }
+}
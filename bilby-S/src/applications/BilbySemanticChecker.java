@@ -3,6 +3,7 @@ package applications;
 import java.io.FileNotFoundException;
 import java.io.PrintStream;
 
+import inputHandler.PackedLocation;
 import lexicalAnalyzer.LexicalAnalyzer;
 import lexicalAnalyzer.Scanner;
 import parseTree.ParseNode;
@@ -36,10 +37,15 @@ public class BilbySemanticChecker extends BilbyApplication {
      * @throws FileNotFoundException
      */
     public static void checkFileSemantics(String filename, PrintStream out) throws FileNotFoundException {
-        Scanner scanner = LexicalAnalyzer.make(filename);
-        ParseNode syntaxTree = Parser.parse(scanner);
-        ParseNode decoratedTree = SemanticAnalyzer.analyze(syntaxTree);
+        int files = PackedLocation.fileMark();
+        try {
+            Scanner scanner = LexicalAnalyzer.make(filename);
+            ParseNode syntaxTree = Parser.parse(scanner);
+            ParseNode decoratedTree = SemanticAnalyzer.analyze(syntaxTree);
 
-        out.print(decoratedTree);
+            out.print(decoratedTree);
+        } finally {
+            PackedLocation.releaseFilesTo(files);
+        }
     }
 }
@@ -6,6 +6,7 @@ import java.io.PrintStream;
 import tokens.Token;
 import tokens.Tokens;
 
+import inputHandler.PackedLocation;
 import lexicalAnalyzer.LexicalAnalyzer;
 import lexicalAnalyzer.Scanner;
 
@@ -32,12 +33,17 @@ public class BilbyTokenPrinter extends BilbyApplication {
      * @throws FileNotFoundException
      */
     public static void scanFile(String filename, PrintStream out) throws FileNotFoundException {
-        Scanner scanner = LexicalAnalyzer.make(filename);
-
-        while (scanner.hasNext()) {
-            printNextToken(out, scanner);
+        int files = PackedLocation.fileMark();
+        try {
+            Scanner scanner = LexicalAnalyzer.make(filename);
+
+            while (scanner.hasNext()) {
+                printNextToken(out, scanner);
+            }
+            printNextToken(out, scanner); // prints NullToken
+        } finally {
+            PackedLocation.releaseFilesTo(files);
         }
-        printNextToken(out, scanner); // prints NullToken
     }
 
     private static void printNextToken(PrintStream out, Scanner scanner) {
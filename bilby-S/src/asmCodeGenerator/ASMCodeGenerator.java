@@ -29,15 +29,26 @@ import static asmCodeGenerator.codeStorage.ASMOpcode.*;
 // do not call the code generator if any errors have occurred during analysis.
 public class ASMCodeGenerator {
     ParseNode root;
+    Traversal traversal;
 
     public static ASMCodeFragment generate(ParseNode syntaxTree) {
         ASMCodeGenerator codeGenerator = new ASMCodeGenerator(syntaxTree);
         return codeGenerator.makeASM();
     }
 
+    public static ASMCodeFragment generate(ParseNode syntaxTree, Traversal traversal) {
+        ASMCodeGenerator codeGenerator = new ASMCodeGenerator(syntaxTree, traversal);
+        return codeGenerator.makeASM();
+    }
+
     public ASMCodeGenerator(ParseNode root) {
+        this(root, Traversal.RECURSIVE);
+    }
+
+    public ASMCodeGenerator(ParseNode root, Traversal traversal) {
         super();
         this.root = root;
+        this.traversal = traversal;
     }
 
     public ASMCodeFragment makeASM() {
@@ -74,7 +85,7 @@ public class ASMCodeGenerator {
 
     private ASMCodeFragment programCode() {
         CodeVisitor visitor = new CodeVisitor();
-        root.accept(visitor);
+        traversal.traverse(root, visitor);
         return visitor.removeRootCode(root);
     }
 
@@ -0,0 +1,126 @@
+package benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+import inputHandler.InputHandler;
+import inputHandler.PushbackCharStream;
+import inputHandler.SourceBuffer;
+import lexicalAnalyzer.LexicalAnalyzer;
+import logging.BilbyLogger;
+import parser.Parser;
+import semanticAnalyzer.SemanticAnalyzer;
+
+/**
+ * A named set of source programs that the phases of a benchmark each process
+ * in one operation. Only programs that compile without errors are admitted,
+ * so that every phase, code generation included, can run on all of them.
+ */
+public class BenchmarkInput {
+    // keeps the parent of the compiler's loggers, and so its settings, alive.
+    private static final Logger compilerLogger = Logger.getLogger("compiler");
+
+    private String name;
+    private List<SourceBuffer> sources;
+    private int rejected;
+
+    private BenchmarkInput(String name) {
+        this.name = name;
+        this.sources = new ArrayList<SourceBuffer>();
+        this.rejected = 0;
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // factories
+
+    /**
+     * @return an input of the error-free bilby programs in directory and its
+     *         subdirectories.
+     */
+    public static BenchmarkInput corpus(File directory) {
+        BenchmarkInput result = new BenchmarkInput(directory.getPath());
+        for (File file : bilbyFiles(directory)) {
+            result.addIfValid(InputHandler.fromFilename(file.getPath(), InputHandler.Mode.MAPPED).sourceBuffer());
+        }
+        return result;
+    }
+
+    /**
+     * @return an input of a single program made from text.
+     */
+    public static BenchmarkInput program(String name, String text) {
+        BenchmarkInput result = new BenchmarkInput(name);
+        result.addIfValid(SourceBuffer.fromText(name, text, "\n"));
+        return result;
+    }
+
+    private static List<File> bilbyFiles(File directory) {
+        List<File> result = new ArrayList<File>();
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return result;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            if (file.isDirectory()) {
+                result.addAll(bilbyFiles(file));
+            } else if (file.getName().endsWith(".bilby")) {
+                result.add(file);
+            }
+        }
+        return result;
+    }
+
+    // compiles source up to code generation with the compiler's logging
+    // silenced, and keeps it if nothing was logged.
+    private void addIfValid(SourceBuffer source) {
+        int messagesBefore = BilbyLogger.messageCount();
+        boolean useParentHandlers = compilerLogger.getUseParentHandlers();
+        compilerLogger.setUseParentHandlers(false);
+        try {
+            SemanticAnalyzer.analyze(Parser.parse(new LexicalAnalyzer(PushbackCharStream.make(source, 0))));
+            if (BilbyLogger.messageCount() == messagesBefore) {
+                sources.add(source);
+                return;
+            }
+        } catch (RuntimeException | AssertionError e) {
+            // the program is rejected like an erroneous one.
+        } finally {
+            compilerLogger.setUseParentHandlers(useParentHandlers);
+        }
+        rejected++;
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // queries
+
+    public String getName() {
+        return name;
+    }
+
+    public List<SourceBuffer> getSources() {
+        return sources;
+    }
+
+    public boolean isEmpty() {
+        return sources.isEmpty();
+    }
+
+    /**
+     * @return the number of programs left out because they have errors.
+     */
+    public int getRejectedCount() {
+        return rejected;
+    }
+
+    public long getCharacterCount() {
+        long result = 0;
+        for (SourceBuffer source : sources) {
+            result += source.length();
+        }
+        return result;
+    }
+}
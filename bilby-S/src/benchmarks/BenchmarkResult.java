@@ -0,0 +1,149 @@
+package benchmarks;
+
+import java.util.Locale;
+
+/**
+ * The measurements of one phase on one input: time and allocation per
+ * operation for each measurement iteration. Written out as JSON in the layout
+ * of JMH's result files (average-time mode), so that JMH result tooling can
+ * read it.
+ */
+public class BenchmarkResult {
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double BYTES_PER_MEGABYTE = 1024.0 * 1024.0;
+
+    private Phase phase;
+    private BenchmarkInput input;
+    private BenchmarkSettings settings;
+    private double[] nanosPerOperation;
+    private double[] bytesPerOperation; // negative if not measurable
+
+    public BenchmarkResult(Phase phase, BenchmarkInput input, BenchmarkSettings settings, double[] nanosPerOperation,
+            double[] bytesPerOperation) {
+        this.phase = phase;
+        this.input = input;
+        this.settings = settings;
+        this.nanosPerOperation = nanosPerOperation;
+        this.bytesPerOperation = bytesPerOperation;
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // statistics
+
+    public double nanosPerOperation() {
+        return mean(nanosPerOperation);
+    }
+
+    public double nanosPerOperationError() {
+        return standardDeviation(nanosPerOperation);
+    }
+
+    public double bytesPerOperation() {
+        return mean(bytesPerOperation);
+    }
+
+    public double charactersPerSecond() {
+        return input.getCharacterCount() * NANOS_PER_SECOND / nanosPerOperation();
+    }
+
+    public double megabytesAllocatedPerSecond() {
+        return bytesPerOperation() * NANOS_PER_SECOND / nanosPerOperation() / BYTES_PER_MEGABYTE;
+    }
+
+    private static double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    private static double standardDeviation(double[] values) {
+        if (values.length < 2) {
+            return Double.NaN;
+        }
+        double mean = mean(values);
+        double sum = 0;
+        for (double value : values) {
+            sum += (value - mean) * (value - mean);
+        }
+        return Math.sqrt(sum / (values.length - 1));
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // output
+
+    public String summary() {
+        return String.format(Locale.ROOT, "%-18s %-40s %14.0f ns/op %12.0f chars/s %12.0f B/op %10.1f MB/s",
+                phase.getBenchmarkName(), input.getName(), nanosPerOperation(), charactersPerSecond(),
+                bytesPerOperation(), megabytesAllocatedPerSecond());
+    }
+
+    public String toJson(String indent) {
+        String inner = indent + "    ";
+        StringBuilder json = new StringBuilder();
+        json.append(indent).append("{\n");
+        field(json, inner, "benchmark", quoted(PhaseBenchmark.class.getName() + "." + phase.getBenchmarkName()));
+        field(json, inner, "mode", quoted("avgt"));
+        field(json, inner, "threads", "1");
+        field(json, inner, "forks", "0");
+        field(json, inner, "jvm", quoted(System.getProperty("java.home")));
+        field(json, inner, "jdkVersion", quoted(System.getProperty("java.version")));
+        field(json, inner, "warmupIterations", Integer.toString(settings.warmupIterations));
+        field(json, inner, "warmupTime", quoted(settings.iterationMillis + " ms"));
+        field(json, inner, "measurementIterations", Integer.toString(settings.measurementIterations));
+        field(json, inner, "measurementTime", quoted(settings.iterationMillis + " ms"));
+        field(json, inner, "params", "{ \"input\" : " + quoted(input.getName()) + ", \"programs\" : \""
+                + input.getSources().size() + "\", \"chars\" : \"" + input.getCharacterCount() + "\" }");
+        field(json, inner, "primaryMetric", "{ \"score\" : " + number(nanosPerOperation()) + ", \"scoreError\" : "
+                + number(nanosPerOperationError()) + ", \"scoreUnit\" : \"ns/op\", \"rawData\" : [ [ "
+                + numbers(nanosPerOperation) + " ] ] }");
+        json.append(inner).append("\"secondaryMetrics\" : {\n");
+        metric(json, inner + "    ", "throughput", charactersPerSecond(), "chars/s", true);
+        metric(json, inner + "    ", "gc.alloc.rate", megabytesAllocatedPerSecond(), "MB/sec", true);
+        metric(json, inner + "    ", "gc.alloc.rate.norm", bytesPerOperation(), "B/op", false);
+        json.append(inner).append("}\n");
+        json.append(indent).append("}");
+        return json.toString();
+    }
+
+    private static void field(StringBuilder json, String indent, String name, String value) {
+        json.append(indent).append(quoted(name)).append(" : ").append(value).append(",\n");
+    }
+
+    private static void metric(StringBuilder json, String indent, String name, double score, String unit,
+            boolean more) {
+        json.append(indent).append(quoted(name)).append(" : { \"score\" : ").append(number(score))
+                .append(", \"scoreUnit\" : ").append(quoted(unit)).append(" }").append(more ? ",\n" : "\n");
+    }
+
+    private static String numbers(double[] values) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            result.append(i == 0 ? "" : ", ").append(number(values[i]));
+        }
+        return result.toString();
+    }
+
+    // JSON has no NaN or infinities.
+    private static String number(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return "\"NaN\"";
+        }
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static String quoted(String string) {
+        StringBuilder result = new StringBuilder("\"");
+        for (char c : string.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                result.append('\\').append(c);
+            } else if (c < ' ') {
+                result.append(String.format("\\u%04x", (int) c));
+            } else {
+                result.append(c);
+            }
+        }
+        return result.append('"').toString();
+    }
+}
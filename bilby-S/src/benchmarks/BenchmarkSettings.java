@@ -0,0 +1,25 @@
+package benchmarks;
+
+/**
+ * How long PhaseBenchmark runs each phase: a number of warmup iterations,
+ * whose measurements are discarded, then a number of measurement iterations.
+ * Each iteration repeats the operation for at least iterationMillis.
+ */
+public class BenchmarkSettings {
+    public static final int DEFAULT_WARMUP_ITERATIONS = 3;
+    public static final int DEFAULT_MEASUREMENT_ITERATIONS = 5;
+    public static final int DEFAULT_ITERATION_MILLIS = 500;
+
+    int warmupIterations = DEFAULT_WARMUP_ITERATIONS;
+    int measurementIterations = DEFAULT_MEASUREMENT_ITERATIONS;
+    int iterationMillis = DEFAULT_ITERATION_MILLIS;
+
+    public BenchmarkSettings() {
+    }
+
+    public BenchmarkSettings(int warmupIterations, int measurementIterations, int iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationMillis = iterationMillis;
+    }
+}
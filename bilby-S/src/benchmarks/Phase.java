@@ -0,0 +1,263 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import asmCodeGenerator.ASMCodeGenerator;
+import asmCodeGenerator.codeStorage.ASMCodeFragment;
+import inputHandler.PushbackCharStream;
+import inputHandler.SourceBuffer;
+import lexicalAnalyzer.LexicalAnalyzer;
+import lexicalAnalyzer.TokenBuffer;
+import parseTree.ParseNode;
+import parseTree.Traversal;
+import parser.ArenaTreeBuilder;
+import parser.Parser;
+import semanticAnalyzer.SemanticAnalyzer;
+
+/**
+ * The compiler phases that PhaseBenchmark measures. Each phase makes, for a
+ * given input, an Operation that runs the phase alone over all of the input's
+ * programs; whatever the phase needs from earlier phases is prepared
+ * beforehand, and outside of the timing.
+ */
+public enum Phase {
+    // LexicalAnalyzer as a Scanner of Tokens, as the compiler uses it.
+    LEXER("lexer") {
+        Operation operation(final BenchmarkInput input) {
+            return new Operation() {
+                Object run() {
+                    int tokens = 0;
+                    for (SourceBuffer source : input.getSources()) {
+                        LexicalAnalyzer scanner = new LexicalAnalyzer(PushbackCharStream.make(source, 0));
+                        while (scanner.hasNext()) {
+                            scanner.next();
+                            tokens++;
+                        }
+                    }
+                    return tokens;
+                }
+            };
+        }
+    },
+    TOKEN_BUFFER("tokenBuffer") {
+        Operation operation(final BenchmarkInput input) {
+            return new Operation() {
+                Object run() {
+                    return tokenBuffers(input);
+                }
+            };
+        }
+    },
+    // the parser reads from TokenBuffers, rewound for each operation.
+    PARSER("parser") {
+        Operation operation(BenchmarkInput input) {
+            final List<TokenBuffer> buffers = tokenBuffers(input);
+            return new Operation() {
+                Object run() {
+                    return parse(buffers);
+                }
+            };
+        }
+    },
+    // analysis decorates the tree, so each operation needs fresh trees.
+    SEMANTIC_ANALYZER("semanticAnalyzer") {
+        Operation operation(BenchmarkInput input) {
+            final List<TokenBuffer> buffers = tokenBuffers(input);
+            return new Operation() {
+                private List<ParseNode> trees;
+
+                void setUp() {
+                    trees = parse(buffers);
+                }
+
+                Object run() {
+                    for (ParseNode tree : trees) {
+                        SemanticAnalyzer.analyze(tree);
+                    }
+                    return trees;
+                }
+            };
+        }
+    },
+    CODE_GENERATOR("codeGenerator") {
+        Operation operation(BenchmarkInput input) {
+            final List<ParseNode> trees = decoratedTrees(input);
+            return new Operation() {
+                Object run() {
+                    return generate(trees);
+                }
+            };
+        }
+    },
+    CODE_EMITTER("codeEmitter") {
+        Operation operation(BenchmarkInput input) {
+            final List<ASMCodeFragment> fragments = generate(decoratedTrees(input));
+            return new Operation() {
+                Object run() {
+                    long length = 0;
+                    for (ASMCodeFragment fragment : fragments) {
+                        length += fragment.toString().length();
+                    }
+                    return length;
+                }
+            };
+        }
+    },
+    // SEMANTIC_ANALYZER and CODE_GENERATOR with Traversal.ITERATIVE.
+    ITERATIVE_SEMANTIC_ANALYZER("iterativeSemanticAnalyzer") {
+        Operation operation(BenchmarkInput input) {
+            final List<TokenBuffer> buffers = tokenBuffers(input);
+            return new Operation() {
+                private List<ParseNode> trees;
+
+                void setUp() {
+                    trees = parse(buffers);
+                }
+
+                Object run() {
+                    for (ParseNode tree : trees) {
+                        SemanticAnalyzer.analyze(tree, Traversal.ITERATIVE);
+                    }
+                    return trees;
+                }
+            };
+        }
+    },
+    ITERATIVE_CODE_GENERATOR("iterativeCodeGenerator") {
+        Operation operation(BenchmarkInput input) {
+            final List<ParseNode> trees = decoratedTrees(input);
+            return new Operation() {
+                Object run() {
+                    List<ASMCodeFragment> result = new ArrayList<ASMCodeFragment>();
+                    for (ParseNode tree : trees) {
+                        result.add(ASMCodeGenerator.generate(tree, Traversal.ITERATIVE));
+                    }
+                    return result;
+                }
+            };
+        }
+    },
+    // the arena-tree counterparts of PARSER, SEMANTIC_ANALYZER and CODE_GENERATOR.
+    ARENA_PARSER("arenaParser") {
+        Operation operation(BenchmarkInput input) {
+            final List<TokenBuffer> buffers = tokenBuffers(input);
+            return new Operation() {
+                Object run() {
+                    return arenaParse(buffers);
+                }
+            };
+        }
+    },
+    ARENA_SEMANTIC_ANALYZER("arenaSemanticAnalyzer") {
+        Operation operation(BenchmarkInput input) {
+            final List<TokenBuffer> buffers = tokenBuffers(input);
+            return new Operation() {
+                private List<ParseNode> trees;
+
+                void setUp() {
+                    trees = arenaParse(buffers);
+                }
+
+                Object run() {
+                    for (ParseNode tree : trees) {
+                        SemanticAnalyzer.analyze(tree);
+                    }
+                    return trees;
+                }
+            };
+        }
+    },
+    ARENA_CODE_GENERATOR("arenaCodeGenerator") {
+        Operation operation(BenchmarkInput input) {
+            final List<ParseNode> trees = analyze(arenaParse(tokenBuffers(input)));
+            return new Operation() {
+                Object run() {
+                    return generate(trees);
+                }
+            };
+        }
+    };
+
+    private String benchmarkName;
+
+    private Phase(String benchmarkName) {
+        this.benchmarkName = benchmarkName;
+    }
+
+    public String getBenchmarkName() {
+        return benchmarkName;
+    }
+
+    public static Phase forBenchmarkName(String benchmarkName) {
+        for (Phase phase : values()) {
+            if (phase.benchmarkName.equals(benchmarkName)) {
+                return phase;
+            }
+        }
+        throw new IllegalArgumentException("no benchmark named " + benchmarkName);
+    }
+
+    abstract Operation operation(BenchmarkInput input);
+
+    /**
+     * One operation of a phase. setUp() is run, untimed, before each run().
+     * run() returns its results so that they cannot be optimized away.
+     */
+    static abstract class Operation {
+        void setUp() {
+        }
+
+        abstract Object run();
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // the earlier phases, for preparing inputs
+
+    private static List<TokenBuffer> tokenBuffers(BenchmarkInput input) {
+        List<TokenBuffer> result = new ArrayList<TokenBuffer>();
+        for (SourceBuffer source : input.getSources()) {
+            TokenBuffer buffer = TokenBuffer.lex(new LexicalAnalyzer(PushbackCharStream.make(source, 0)));
+            buffer.mark();
+            result.add(buffer);
+        }
+        return result;
+    }
+
+    private static List<ParseNode> parse(List<TokenBuffer> buffers) {
+        List<ParseNode> result = new ArrayList<ParseNode>();
+        for (TokenBuffer buffer : buffers) {
+            buffer.rewind();
+            result.add(Parser.parse(buffer));
+        }
+        return result;
+    }
+
+    private static List<ParseNode> arenaParse(List<TokenBuffer> buffers) {
+        List<ParseNode> result = new ArrayList<ParseNode>();
+        for (TokenBuffer buffer : buffers) {
+            buffer.rewind();
+            result.add(ArenaTreeBuilder.parse(buffer));
+        }
+        return result;
+    }
+
+    private static List<ParseNode> decoratedTrees(BenchmarkInput input) {
+        return analyze(parse(tokenBuffers(input)));
+    }
+
+    private static List<ParseNode> analyze(List<ParseNode> trees) {
+        for (ParseNode tree : trees) {
+            SemanticAnalyzer.analyze(tree);
+        }
+        return trees;
+    }
+
+    private static List<ASMCodeFragment> generate(List<ParseNode> trees) {
+        List<ASMCodeFragment> result = new ArrayList<ASMCodeFragment>();
+        for (ParseNode tree : trees) {
+            result.add(ASMCodeGenerator.generate(tree));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,196 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import programGenerator.ProgramGenerator;
+
+/**
+ * Measures each compiler phase separately (see Phase) on the bilby test
+ * corpora and on synthetic programs of several sizes, reporting time and
+ * allocation per operation, throughput, and allocation rate.
+ * <p>
+ * A summary goes to standard output, and the results, as JSON, to the file
+ * given with -o. Usage:
+ *
+ * <pre>
+ * PhaseBenchmark [-o results.json] [-warmup n] [-iterations n] [-time ms]
+ *                [-scales n,n,...] [-phases name,name,...] [corpus directory...]
+ * </pre>
+ *
+ * The corpus directories default to input/bilby-0 through input/bilby-3, and
+ * the synthetic program sizes to 1000 and 10000 statements.
+ */
+public class PhaseBenchmark {
+    private static final String[] DEFAULT_CORPORA = { "input/bilby-0", "input/bilby-1", "input/bilby-2",
+            "input/bilby-3" };
+    private static final int[] DEFAULT_SCALES = { 1000, 10000 };
+
+    private BenchmarkSettings settings;
+    private ThreadMXBean threads;
+    private Object sink; // results of operations, kept so they are computed
+
+    public PhaseBenchmark(BenchmarkSettings settings) {
+        this.settings = settings;
+        this.threads = ManagementFactory.getThreadMXBean();
+    }
+
+    public static void main(String[] args) throws FileNotFoundException {
+        BenchmarkSettings settings = new BenchmarkSettings();
+        String outputFilename = null;
+        int[] scales = DEFAULT_SCALES;
+        List<Phase> phases = new ArrayList<Phase>(List.of(Phase.values()));
+        List<String> corpora = new ArrayList<String>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+            case "-o":
+                outputFilename = args[++i];
+                break;
+            case "-warmup":
+                settings.warmupIterations = Integer.parseInt(args[++i]);
+                break;
+            case "-iterations":
+                settings.measurementIterations = Integer.parseInt(args[++i]);
+                break;
+            case "-time":
+                settings.iterationMillis = Integer.parseInt(args[++i]);
+                break;
+            case "-scales":
+                scales = parseInts(args[++i]);
+                break;
+            case "-phases":
+                phases.clear();
+                for (String name : args[++i].split(",")) {
+                    phases.add(Phase.forBenchmarkName(name));
+                }
+                break;
+            default:
+                corpora.add(args[i]);
+            }
+        }
+        if (corpora.isEmpty()) {
+            corpora.addAll(List.of(DEFAULT_CORPORA));
+        }
+
+        List<BenchmarkResult> results = new PhaseBenchmark(settings).run(phases, inputs(corpora, scales));
+        if (outputFilename != null) {
+            writeJson(outputFilename, results);
+        }
+    }
+
+    private static int[] parseInts(String commaSeparated) {
+        String[] parts = commaSeparated.split(",");
+        int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i].trim());
+        }
+        return result;
+    }
+
+    private static List<BenchmarkInput> inputs(List<String> corpora, int[] scales) {
+        List<BenchmarkInput> result = new ArrayList<BenchmarkInput>();
+        for (String directory : corpora) {
+            BenchmarkInput corpus = BenchmarkInput.corpus(new File(directory));
+            System.out.println("# " + directory + ": " + corpus.getSources().size() + " programs ("
+                    + corpus.getRejectedCount() + " with errors left out)");
+            if (!corpus.isEmpty()) {
+                result.add(corpus);
+            }
+        }
+        for (int statements : scales) {
+            BenchmarkInput program = BenchmarkInput.program("synthetic-" + statements,
+                    ProgramGenerator.generate(statements, ProgramGenerator.DEFAULT_EXPRESSION_DEPTH, statements)
+                            .getText());
+            if (program.isEmpty()) {
+                System.out.println("# synthetic-" + statements + ": has errors, left out");
+            } else {
+                result.add(program);
+            }
+        }
+        return result;
+    }
+
+    private static void writeJson(String filename, List<BenchmarkResult> results) throws FileNotFoundException {
+        File parent = new File(filename).getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        try (PrintStream out = new PrintStream(filename)) {
+            out.println("[");
+            for (int i = 0; i < results.size(); i++) {
+                out.print(results.get(i).toJson("    "));
+                out.println(i < results.size() - 1 ? "," : "");
+            }
+            out.println("]");
+        }
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // measurement
+
+    public List<BenchmarkResult> run(List<Phase> phases, List<BenchmarkInput> inputs) {
+        List<BenchmarkResult> results = new ArrayList<BenchmarkResult>();
+        for (Phase phase : phases) {
+            for (BenchmarkInput input : inputs) {
+                BenchmarkResult result = measure(phase, input);
+                System.out.println(result.summary());
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    public BenchmarkResult measure(Phase phase, BenchmarkInput input) {
+        Phase.Operation operation = phase.operation(input);
+        double[] measurement = new double[2];
+        for (int i = 0; i < settings.warmupIterations; i++) {
+            iterate(operation, measurement);
+        }
+
+        double[] nanos = new double[settings.measurementIterations];
+        double[] bytes = new double[settings.measurementIterations];
+        for (int i = 0; i < settings.measurementIterations; i++) {
+            iterate(operation, measurement);
+            nanos[i] = measurement[0];
+            bytes[i] = measurement[1];
+        }
+        sink = null;
+        return new BenchmarkResult(phase, input, settings, nanos, bytes);
+    }
+
+    // runs operations for at least the iteration time; leaves the mean
+    // nanoseconds and bytes allocated per operation in result[0] and [1].
+    private void iterate(Phase.Operation operation, double[] result) {
+        long iterationNanos = settings.iterationMillis * 1000000L;
+        long thread = Thread.currentThread().getId();
+        long nanos = 0;
+        long bytes = 0;
+        long operations = 0;
+        while (nanos < iterationNanos || operations == 0) {
+            operation.setUp();
+            long bytesBefore = allocatedBytes(thread);
+            long start = System.nanoTime();
+            sink = operation.run();
+            nanos += System.nanoTime() - start;
+            bytes += allocatedBytes(thread) - bytesBefore;
+            operations++;
+        }
+        result[0] = (double) nanos / operations;
+        result[1] = (double) bytes / operations;
+    }
+
+    // -1 (so that per-operation figures come out negative) if the JVM cannot
+    // tell.
+    private long allocatedBytes(long thread) {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(thread);
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,78 @@
+package benchmarks;
+
+import inputHandler.PushbackCharStream;
+import inputHandler.SourceBuffer;
+import lexicalAnalyzer.LexicalAnalyzer;
+import lexicalAnalyzer.TokenBuffer;
+import parseTree.ParseNode;
+import parser.ArenaTreeBuilder;
+import parser.Parser;
+import programGenerator.ProgramGenerator;
+
+/**
+ * Measures the heap a parse tree keeps per node, as ParseNodes (with their
+ * Tokens) and as an ArenaTree, for synthetic programs of several sizes. Usage:
+ *
+ * <pre>
+ * TreeFootprint [-scales n,n,...]
+ * </pre>
+ *
+ * The heap in use is measured after garbage collection, before and after each
+ * tree is built, so the figures are only as exact as the collector; the
+ * default sizes (up to about a million nodes) make the error small.
+ */
+public class TreeFootprint {
+    private static final int[] DEFAULT_SCALES = { 10000, 100000 };
+    private static final int COLLECTIONS = 4;
+
+    public static void main(String[] args) {
+        int[] scales = DEFAULT_SCALES;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-scales")) {
+                String[] parts = args[++i].split(",");
+                scales = new int[parts.length];
+                for (int k = 0; k < parts.length; k++) {
+                    scales[k] = Integer.parseInt(parts[k].trim());
+                }
+            }
+        }
+        for (int statements : scales) {
+            measure(statements);
+        }
+    }
+
+    private static void measure(int statements) {
+        String text = ProgramGenerator.generate(statements, ProgramGenerator.DEFAULT_EXPRESSION_DEPTH, statements)
+                .getText();
+        SourceBuffer source = SourceBuffer.fromText("synthetic-" + statements, text, "\n");
+        TokenBuffer tokens = TokenBuffer.lex(new LexicalAnalyzer(PushbackCharStream.make(source, 0)));
+        tokens.mark();
+
+        long before = heapInUse();
+        ArenaTreeBuilder builder = new ArenaTreeBuilder(tokens);
+        new Parser(builder.scanner(), builder).parse();
+        long arenaBytes = heapInUse() - before;
+        int nodes = builder.tree().size();
+
+        tokens.rewind();
+        before = heapInUse();
+        ParseNode tree = Parser.parse(tokens);
+        long treeBytes = heapInUse() - before;
+
+        System.out.println(String.format(
+                "synthetic-%d: %d nodes; ParseNodes %.1f bytes/node, arena %.1f bytes/node (%.1fx)", statements,
+                nodes, (double) treeBytes / nodes, (double) arenaBytes / nodes, (double) treeBytes / arenaBytes));
+        // keep both trees reachable until both are measured.
+        if (tree == null || builder.tree().root() < 0) {
+            System.out.println("# no tree");
+        }
+    }
+
+    private static long heapInUse() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < COLLECTIONS; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
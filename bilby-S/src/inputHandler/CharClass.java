@@ -0,0 +1,75 @@
+package inputHandler;
+
+/**
+ * Character classification for scanning, by table lookup.
+ * <p>
+ * ASCII characters are classified by a 128-entry table of class bits; other
+ * characters take a slow path through java.lang.Character, so that the
+ * classifications agree with the Character-based ones they replace.
+ */
+public class CharClass {
+    public static final int LOWERCASE = 1; // includes '_'
+    public static final int DIGIT = 2;
+    public static final int WHITESPACE = 4;
+
+    private static final int ASCII_LIMIT = 128;
+    private static final byte[] classes = new byte[ASCII_LIMIT];
+    static {
+        for (char c = 0; c < ASCII_LIMIT; c++) {
+            classes[c] = (byte) slowClassOf(c);
+        }
+    }
+
+    private CharClass() {
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // classification
+
+    /**
+     * @return the class bits (LOWERCASE, DIGIT, WHITESPACE) of c.
+     */
+    public static int classOf(char c) {
+        if (c < ASCII_LIMIT) {
+            return classes[c];
+        }
+        return slowClassOf(c);
+    }
+
+    public static boolean isLowerCase(char c) {
+        return (classOf(c) & LOWERCASE) != 0;
+    }
+
+    public static boolean isDigit(char c) {
+        return (classOf(c) & DIGIT) != 0;
+    }
+
+    public static boolean isWhitespace(char c) {
+        return (classOf(c) & WHITESPACE) != 0;
+    }
+
+    /**
+     * @param c a character for which isDigit(c) holds.
+     * @return its decimal value.
+     */
+    public static int digitValue(char c) {
+        if (c < ASCII_LIMIT) {
+            return c - '0';
+        }
+        return Character.digit(c, 10);
+    }
+
+    private static int slowClassOf(char c) {
+        int result = 0;
+        if (Character.isLowerCase(c) || c == '_') {
+            result |= LOWERCASE;
+        }
+        if (Character.isDigit(c)) {
+            result |= DIGIT;
+        }
+        if (Character.isWhitespace(c)) {
+            result |= WHITESPACE;
+        }
+        return result;
+    }
+}
@@ -1,11 +1,17 @@
 package inputHandler;
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
  * A line-based file reader that knows the filename and line number. Use one of
  * the factories <code>fromFilename(...)</code> to construct.
  * <p>
+ * In Mode.LINE_BY_LINE (the default) the file is read through a BufferedReader
+ * one line at a time. In Mode.MAPPED the whole file is memory-mapped and
+ * decoded into a SourceBuffer when the InputHandler is made; its lines are then
+ * offsets into that buffer, and LocatedCharStream reads the buffer directly.
+ * <p>
  * The lines returned by its iterator have their original line terminator
  * replaced by the terminator given to the factory (or the default of "\n" if
  * the one-argument factory is used).
@@ -17,20 +23,31 @@ import java.util.Iterator;
 public class InputHandler implements Iterable<String> {
     private static final String DEFAULT_TERMINATOR = "\n";
 
+    public enum Mode {
+        LINE_BY_LINE, MAPPED,
+    }
+
     protected int lineNumber = 0;
     private boolean iteratorIssued = false;
     protected String filename;
     protected String terminator;
+    private SourceBuffer buffer; // null until needed in LINE_BY_LINE mode.
 
     private InputHandler(String filename, String terminator) {
         this.filename = filename;
         this.terminator = terminator;
+        this.buffer = null;
     }
 
     private InputHandler(String filename) {
         this(filename, DEFAULT_TERMINATOR);
     }
 
+    private InputHandler(SourceBuffer buffer, String terminator) {
+        this(buffer.fileName(), terminator);
+        this.buffer = buffer;
+    }
+
     /**
      * Get the file name.
      * 
@@ -51,10 +68,30 @@ public class InputHandler implements Iterable<String> {
         return lineNumber;
     }
 
+    public boolean isMapped() {
+        return buffer != null;
+    }
+
+    /**
+     * Get the whole text of the file as a single buffer. In LINE_BY_LINE mode
+     * this reads the file through this InputHandler's one iterator.
+     *
+     * @return the SourceBuffer holding the lines this InputHandler iterates over.
+     */
+    public SourceBuffer sourceBuffer() {
+        if (buffer == null) {
+            buffer = SourceBuffer.fromLines(filename, iterator());
+        }
+        return buffer;
+    }
+
     @Override
     public Iterator<String> iterator() {
         ensureSingleIterator();
 
+        if (isMapped()) {
+            return new BufferIterator();
+        }
         return new HandlerIterator(filename);
     }
 
@@ -77,6 +114,22 @@ public class InputHandler implements Iterable<String> {
         }
     }
 
+    protected class BufferIterator implements Iterator<String> {
+        @Override
+        public boolean hasNext() {
+            return lineNumber < buffer.lineCount();
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lineNumber++;
+            return buffer.lineString(lineNumber);
+        }
+    }
+
     //////////////////////////////////////////////////////////////////////////////
     // factories
 
@@ -87,4 +140,15 @@ public class InputHandler implements Iterable<String> {
     public static InputHandler fromFilename(String filename) {
         return fromFilename(filename, DEFAULT_TERMINATOR);
     }
+
+    public static InputHandler fromFilename(String filename, String terminator, Mode mode) {
+        if (mode == Mode.MAPPED) {
+            return new InputHandler(SourceBuffer.map(filename, terminator), terminator);
+        }
+        return fromFilename(filename, terminator);
+    }
+
+    public static InputHandler fromFilename(String filename, Mode mode) {
+        return fromFilename(filename, DEFAULT_TERMINATOR, mode);
+    }
 }
@@ -37,7 +37,7 @@ public class LocatedChar implements Locator {
     }
 
     private String charString() {
-        if (Character.isWhitespace(character)) {
+        if (CharClass.isWhitespace(character)) {
             int i = character;
             return String.format("'\\%d'", i);
         } else {
@@ -49,14 +49,29 @@ public class LocatedChar implements Locator {
     // delegates
 
     public boolean isLowerCase() {
-        return Character.isLowerCase(character) || (character == '_');
+        return isLowerCase(character);
     }
 
     public boolean isDigit() {
-        return Character.isDigit(character);
+        return isDigit(character);
     }
 
     public boolean isWhitespace() {
-        return Character.isWhitespace(character);
+        return isWhitespace(character);
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // the same classifications, for bare chars
+
+    public static boolean isLowerCase(char c) {
+        return CharClass.isLowerCase(c);
+    }
+
+    public static boolean isDigit(char c) {
+        return CharClass.isDigit(c);
+    }
+
+    public static boolean isWhitespace(char c) {
+        return CharClass.isWhitespace(c);
     }
 }
@@ -2,59 +2,150 @@ package inputHandler;
 
 import java.util.Iterator;
 
+/**
+ * Stream of the characters of an input, with their locations.
+ * <p>
+ * The primitive interface is <code>nextChar()</code>, which returns a bare char
+ * (NULL_CHAR at end of input), together with <code>position()</code>, which
+ * returns the location of that char packed into a long (see PackedLocation),
+ * and <code>offset()</code>, which returns its offset in the source buffer.
+ * None allocates; a TextLocation is made only when <code>location()</code>
+ * or <code>locationOf(...)</code> is asked for one.
+ * <p>
+ * The Iterator&lt;LocatedChar&gt; interface is an adapter over the primitive
+ * one.
+ */
 public class LocatedCharStream implements Iterator<LocatedChar> {
     public static final char NULL_CHAR = '\0';
-    public static final LocatedChar FLAG_END_OF_INPUT = new LocatedChar(NULL_CHAR, new TextLocation("null", -1, -1));
-
-    private Iterator<String> inputIterator;
-    private String line;
-    private int index;
-
-    private LocatedChar next;
-    private InputHandler input;
+    public static final LocatedChar FLAG_END_OF_INPUT = new LocatedChar(NULL_CHAR,
+            new TextLocation(PackedLocation.END_OF_INPUT_FILENAME, -1, -1));
+    public static final long END_OF_INPUT_POSITION = PackedLocation.pack(FLAG_END_OF_INPUT.getLocation());
+
+    private SourceBuffer source;
+    private char[] chars;
+    private int length;
+    private int fileIndex;
+    private int index; // offset in source of the next character to read
+    private int lastIndex; // offset of the character last read, -1 at end of input
+    private int lineNumber;
+    private int lineStart;
+    private int nextLineStart;
 
     public LocatedCharStream(InputHandler input) {
+        this(input.sourceBuffer(), 0);
+    }
+
+    /**
+     * Makes a stream of the characters of source from offset start on. Their
+     * locations are as in a stream of all of source.
+     */
+    public LocatedCharStream(SourceBuffer source, int start) {
         super();
-        this.input = input;
-        this.inputIterator = input.iterator();
-        this.index = 0;
-        this.line = "";
-        preloadChar();
+        this.source = source;
+        this.chars = source.chars();
+        this.length = source.length();
+        this.fileIndex = PackedLocation.fileIndex(source.fileName());
+        this.index = start;
+        this.lastIndex = -1;
+        int startLine = source.lineNumberAt(start);
+        this.lineNumber = startLine - 1;
+        this.lineStart = 0;
+        this.nextLineStart = source.lineCount() == 0 ? 0 : source.lineStart(startLine);
     }
 
-    private void preloadChar() {
+    //////////////////////////////////////////////////////////////////////////////
+    // primitive interface
+
+    /**
+     * Reads the next character.
+     *
+     * @return the character, or NULL_CHAR if the input is exhausted. Use
+     *         <code>isEndOfInput()</code> to tell the two apart.
+     */
+    public char nextChar() {
+        if (index >= length) {
+            lastIndex = -1;
+            return NULL_CHAR;
+        }
         ensureLineHasACharacter();
-        next = nextCharInLine();
+        lastIndex = index;
+        return chars[index++];
     }
 
-    private LocatedChar nextCharInLine() {
-        if (endOfInput()) {
-            return FLAG_END_OF_INPUT;
+    /**
+     * @return the packed location of the character last returned by
+     *         <code>nextChar()</code>, or END_OF_INPUT_POSITION if that was the
+     *         end of input.
+     */
+    public long position() {
+        if (lastIndex < 0) {
+            return END_OF_INPUT_POSITION;
         }
+        return PackedLocation.pack(fileIndex, lineNumber, lastIndex - lineStart);
+    }
 
-        TextLocation location = new TextLocation(input.fileName(), input.lineNumber(), index);
-        char character = line.charAt(index++);
-        return new LocatedChar(character, location);
+    /**
+     * @return the offset in <code>sourceBuffer()</code> of the character last
+     *         returned by <code>nextChar()</code>, or the length of the source
+     *         if that was the end of input. Unlike a packed position, this is
+     *         exact at any size.
+     */
+    public int offset() {
+        return lastIndex < 0 ? length : lastIndex;
     }
 
-    private void ensureLineHasACharacter() {
-        while (!moreCharsInLine() && inputIterator.hasNext()) {
-            readNextLine();
+    public boolean isEndOfInput() {
+        return position() == END_OF_INPUT_POSITION;
+    }
+
+    /**
+     * @return the location of the character last returned by
+     *         <code>nextChar()</code>.
+     */
+    public TextLocation location() {
+        return locationOf(position());
+    }
+
+    public TextLocation locationOf(long position) {
+        return PackedLocation.toTextLocation(position);
+    }
+
+    public SourceBuffer sourceBuffer() {
+        return source;
+    }
+
+    /**
+     * @param position the packed position of a character of this stream.
+     * @return the offset of that character in <code>sourceBuffer()</code>.
+     * @throws IllegalArgumentException if the line number or position was
+     *                                  clamped in packing, so that the offset
+     *                                  cannot be known. Use <code>offset()</code>
+     *                                  when reading.
+     */
+    public int offsetOf(long position) {
+        if (PackedLocation.isClamped(position)) {
+            throw new IllegalArgumentException("no exact offset for clamped position " + locationOf(position));
         }
+        return source.lineStart(PackedLocation.lineNumber(position)) + PackedLocation.position(position);
     }
 
-    private boolean endOfInput() {
-        return !moreCharsInLine() && !inputIterator.hasNext();
+    // lines are contiguous in the source buffer; only lines with an empty
+    // terminator can be empty.
+    private void ensureLineHasACharacter() {
+        while (!moreCharsInLine() && lineNumber < source.lineCount()) {
+            readNextLine();
+        }
     }
 
     private boolean moreCharsInLine() {
-        return index < line.length();
+        return index < nextLineStart;
     }
 
     private void readNextLine() {
-        assert (inputIterator.hasNext());
-        line = inputIterator.next();
-        index = 0;
+        assert (lineNumber < source.lineCount());
+        lineNumber++;
+        lineStart = nextLineStart;
+        nextLineStart = source.lineEnd(lineNumber);
     }
 
     //////////////////////////////////////////////////////////////////////////////
@@ -64,14 +155,16 @@ public class LocatedCharStream implements Iterator<LocatedChar> {
 
     @Override
     public boolean hasNext() {
-        return next != FLAG_END_OF_INPUT;
+        return index < length;
     }
 
     @Override
     public LocatedChar next() {
-        LocatedChar result = next;
-        preloadChar();
-        return result;
+        char character = nextChar();
+        if (isEndOfInput()) {
+            return FLAG_END_OF_INPUT;
+        }
+        return new LocatedChar(character, location());
     }
 
     /**
@@ -0,0 +1,138 @@
+package inputHandler;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Static helpers for text locations packed into a single long, so that
+ * scanners can carry locations around without allocating a TextLocation for
+ * each one.
+ * <p>
+ * A packed location holds 16 bits of file index, 24 bits of line number and 24
+ * bits of character position. File indices come from a registry of file names
+ * kept here; a process that compiles file after file releases each
+ * compilation's names when it is done (see fileMark()). Line numbers and
+ * positions are stored plus one (so that the -1 of the end-of-input location
+ * fits) and are clamped to 2^24 - 2.
+ * <p>
+ * NO_LOCATION stands for TextLocation.nullInstance().
+ */
+public class PackedLocation {
+    public static final long NO_LOCATION = -1L;
+
+    private static final int FIELD_BITS = 24;
+    private static final long FIELD_MASK = (1L << FIELD_BITS) - 1;
+    private static final int MAX_FIELD_VALUE = (int) FIELD_MASK - 1;
+    private static final int LINE_SHIFT = FIELD_BITS;
+    private static final int FILE_SHIFT = 2 * FIELD_BITS;
+    private static final int MAX_FILES = (1 << 16) - 1; // index 0xFFFF is NO_LOCATION's
+
+    private static final int STARTING_FILES = 16;
+
+    private static final Map<String, Integer> fileIndices = new HashMap<String, Integer>();
+    private static volatile String[] filenames = new String[STARTING_FILES]; // by index; see fileIndex()
+    private static int fileCount = 0;
+
+    // the file of the end-of-input location, registered before any mark can
+    // be taken so that it is never released.
+    public static final String END_OF_INPUT_FILENAME = "null";
+    static {
+        fileIndex(END_OF_INPUT_FILENAME);
+    }
+
+    private PackedLocation() {
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // file registry
+
+    public static synchronized int fileIndex(String filename) {
+        Integer index = fileIndices.get(filename);
+        if (index == null) {
+            if (fileCount == MAX_FILES) {
+                throw new IllegalStateException("too many files for packed locations");
+            }
+            index = fileCount++;
+            String[] names = filenames;
+            if (index == names.length) {
+                names = Arrays.copyOf(names, Math.min(2 * index, MAX_FILES));
+            }
+            names[index] = filename;
+            filenames = names; // republished, so that readers on other threads see the new name
+            fileIndices.put(filename, index);
+        }
+        return index;
+    }
+
+    /**
+     * @return a mark for releaseFilesTo(): the file names registered after it
+     *         are the ones that call releases.
+     */
+    public static synchronized int fileMark() {
+        return fileCount;
+    }
+
+    /**
+     * Forgets the file names registered since mark was taken, so that their
+     * indices are used again. Packed locations in those files must not be
+     * unpacked afterwards. Marks nest: release the latest mark first.
+     */
+    public static synchronized void releaseFilesTo(int mark) {
+        String[] names = filenames;
+        while (fileCount > mark) {
+            fileCount--;
+            fileIndices.remove(names[fileCount]);
+            names[fileCount] = null;
+        }
+        filenames = names;
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // packing
+
+    public static long pack(int fileIndex, int lineNumber, int position) {
+        return ((long) fileIndex << FILE_SHIFT) | (field(lineNumber) << LINE_SHIFT) | field(position);
+    }
+
+    public static long pack(TextLocation location) {
+        if (location == TextLocation.nullInstance()) {
+            return NO_LOCATION;
+        }
+        return pack(fileIndex(location.getFilename()), location.getLineNumber(), location.getPosition());
+    }
+
+    private static long field(int value) {
+        return Math.min(value, MAX_FIELD_VALUE) + 1;
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // unpacking
+
+    public static String filename(long packed) {
+        return filenames[(int) (packed >>> FILE_SHIFT)];
+    }
+
+    public static int lineNumber(long packed) {
+        return (int) ((packed >>> LINE_SHIFT) & FIELD_MASK) - 1;
+    }
+
+    public static int position(long packed) {
+        return (int) (packed & FIELD_MASK) - 1;
+    }
+
+    /**
+     * @return true if the line number or position of packed may have been
+     *         clamped, and so may not be the one packed.
+     */
+    public static boolean isClamped(long packed) {
+        return packed != NO_LOCATION && (lineNumber(packed) == MAX_FIELD_VALUE || position(packed) == MAX_FIELD_VALUE);
+    }
+
+    public static TextLocation toTextLocation(long packed) {
+        if (packed == NO_LOCATION) {
+            return TextLocation.nullInstance();
+        }
+        return new TextLocation(filename(packed), lineNumber(packed), position(packed));
+    }
+}
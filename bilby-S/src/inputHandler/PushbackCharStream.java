@@ -1,37 +1,216 @@
 package inputHandler;
 
-import java.util.Stack;
-
+/**
+ * LocatedCharStream with lookahead, mark/reset and pushback.
+ * <p>
+ * Characters read from the underlying stream are kept, with their packed
+ * positions and source offsets, in a fixed-capacity ring buffer of
+ * primitives. Entries are addressed by sequence number: <code>cursor</code> is
+ * the sequence number of the next character to hand out and
+ * <code>filled</code> is one past the last character read from the underlying
+ * stream. The buffer retains the last <code>capacity</code> characters read,
+ * so lookahead, a reset, or a pushback may reach at most that far.
+ * <p>
+ * End of input is buffered like any other character: NULL_CHAR at
+ * END_OF_INPUT_POSITION.
+ */
 public class PushbackCharStream extends LocatedCharStream {
-    private Stack<LocatedChar> pushedBack;
+    public static final int DEFAULT_CAPACITY = 64;
+    private static final long NO_MARK = Long.MIN_VALUE;
+
+    private final char[] chars;
+    private final long[] positions;
+    private final int[] offsets;
+    private final int mask;
+    private long cursor;
+    private long filled;
+    private long lastPosition;
+    private int lastOffset;
+    private long mark;
+    private long markPosition;
+    private int markOffset;
 
     public PushbackCharStream(InputHandler handler) {
-        super(handler);
-        this.pushedBack = new Stack<LocatedChar>();
+        this(handler, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity the number of characters retained; rounded up to a power
+     *                 of two.
+     */
+    public PushbackCharStream(InputHandler handler, int capacity) {
+        this(handler.sourceBuffer(), 0, capacity);
+    }
+
+    /**
+     * A stream of the characters of source from offset start on; see
+     * LocatedCharStream.
+     */
+    public PushbackCharStream(SourceBuffer source, int start, int capacity) {
+        super(source, start);
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.chars = new char[size];
+        this.positions = new long[size];
+        this.offsets = new int[size];
+        this.mask = size - 1;
+        this.cursor = 0;
+        this.filled = 0;
+        this.lastPosition = END_OF_INPUT_POSITION;
+        this.lastOffset = source.length();
+        this.mark = NO_MARK;
+    }
+
+    public int capacity() {
+        return chars.length;
     }
 
     @Override
     public boolean hasNext() {
-        return !pushedBack.empty() || super.hasNext();
+        if (cursor < filled) {
+            return positions[slot(cursor)] != END_OF_INPUT_POSITION;
+        }
+        return super.hasNext();
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // primitive interface
+
+    @Override
+    public char nextChar() {
+        if (cursor == filled) {
+            fill();
+        }
+        int slot = slot(cursor++);
+        lastPosition = positions[slot];
+        lastOffset = offsets[slot];
+        return chars[slot];
+    }
+
+    @Override
+    public long position() {
+        return lastPosition;
     }
 
     @Override
-    public LocatedChar next() {
-        if (pushedBack.empty()) {
-            return super.next();
-        } else {
-            return pushedBack.pop();
+    public int offset() {
+        return lastOffset;
+    }
+
+    /**
+     * @return the next character, without consuming it.
+     */
+    public char peekChar() {
+        return peekChar(0);
+    }
+
+    /**
+     * @param k how far to look past the next character; 0 is the next character.
+     *          Must be less than <code>capacity()</code>.
+     * @return the character k past the next one, without consuming anything.
+     */
+    public char peekChar(int k) {
+        checkLookahead(k);
+        while (filled <= cursor + k) {
+            fill();
         }
+        return chars[slot(cursor + k)];
     }
 
+    /**
+     * @return the packed position of the character that
+     *         <code>peekChar(k)</code> returns.
+     */
+    public long peekPosition(int k) {
+        peekChar(k);
+        return positions[slot(cursor + k)];
+    }
+
+    /**
+     * Remembers the current point in the stream, so that <code>reset()</code>
+     * can return to it. The mark stays valid until <code>capacity()</code>
+     * characters past it have been read.
+     */
+    public void mark() {
+        mark = cursor;
+        markPosition = lastPosition;
+        markOffset = lastOffset;
+    }
+
+    /**
+     * Returns to the last mark; the characters read since then will be read
+     * again, and <code>position()</code> and <code>offset()</code> are as they
+     * were at the mark.
+     *
+     * @throws IllegalStateException if there is no valid mark.
+     */
+    public void reset() {
+        if (mark == NO_MARK) {
+            throw new IllegalStateException("reset without a valid mark");
+        }
+        cursor = mark;
+        lastPosition = markPosition;
+        lastOffset = markOffset;
+    }
+
+    /**
+     * Makes character the next one read, at the given position and offset.
+     * Normally this is the character just read, being put back.
+     *
+     * @throws IllegalStateException if the buffer has no room behind the cursor.
+     */
+    public void pushback(char character, long position, int offset) {
+        if (cursor - 1 < filled - chars.length) {
+            throw new IllegalStateException("pushback buffer full");
+        }
+        int slot = slot(--cursor);
+        chars[slot] = character;
+        positions[slot] = position;
+        offsets[slot] = offset;
+    }
+
+    /**
+     * As pushback(character, position, offset), with the offset worked out
+     * from the position (see offsetOf).
+     */
+    public void pushback(char character, long position) {
+        pushback(character, position, position == END_OF_INPUT_POSITION ? sourceBuffer().length() : offsetOf(position));
+    }
+
+    private void fill() {
+        if (mark != NO_MARK && mark <= filled - chars.length) {
+            mark = NO_MARK;
+        }
+        char character = super.nextChar();
+        int slot = slot(filled++);
+        chars[slot] = character;
+        positions[slot] = super.position();
+        offsets[slot] = super.offset();
+    }
+
+    private void checkLookahead(int k) {
+        if (k < 0 || k >= chars.length) {
+            throw new IllegalArgumentException("lookahead " + k + " outside buffer capacity " + chars.length);
+        }
+    }
+
+    private int slot(long sequenceNumber) {
+        return (int) sequenceNumber & mask;
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // LocatedChar interface
+
     public LocatedChar peek() {
-        LocatedChar result = next();
-        pushback(result);
-        return result;
+        char character = peekChar();
+        long position = positions[slot(cursor)];
+        if (position == END_OF_INPUT_POSITION) {
+            return FLAG_END_OF_INPUT;
+        }
+        return new LocatedChar(character, locationOf(position));
     }
 
     public void pushback(LocatedChar locatedChar) {
-        pushedBack.push(locatedChar);
+        pushback(locatedChar.getCharacter(), PackedLocation.pack(locatedChar.getLocation()));
     }
 
     /**
@@ -47,4 +226,8 @@ public class PushbackCharStream extends LocatedCharStream {
         return new PushbackCharStream(handler);
     }
 
+    public static PushbackCharStream make(SourceBuffer source, int start) {
+        return new PushbackCharStream(source, start, DEFAULT_CAPACITY);
+    }
+
 }
@@ -0,0 +1,265 @@
+package inputHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * The entire text of a source file, held in one char array. Use one of the
+ * factories <code>map(...)</code>, <code>fromText(...)</code> or
+ * <code>fromLines(...)</code> to construct.
+ * <p>
+ * Line terminators are normalized to the terminator given to the factory, so
+ * the buffer holds exactly the concatenation of the lines that an
+ * InputHandler's iterator would return. Lines are exposed as offsets into the
+ * buffer; no per-line String is created unless one is asked for.
+ * <p>
+ * Line numbers are one-based, as in InputHandler.
+ */
+public class SourceBuffer {
+    private static final int STARTING_LINE_CAPACITY = 64;
+
+    private final String filename;
+    private final char[] chars;
+    private final int length;
+    // lineStarts[i] is the offset of line i+1; lineStarts[lineCount] == length.
+    private final int[] lineStarts;
+    private final int lineCount;
+
+    private SourceBuffer(String filename, char[] chars, int length, int[] lineStarts, int lineCount) {
+        this.filename = filename;
+        this.chars = chars;
+        this.length = length;
+        this.lineStarts = lineStarts;
+        this.lineCount = lineCount;
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // queries
+
+    public String fileName() {
+        return filename;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public char charAt(int offset) {
+        return chars[offset];
+    }
+
+    /**
+     * The backing array, for scanning loops that cannot afford a method call per
+     * character. Only offsets below <code>length()</code> are meaningful. Do not
+     * modify it.
+     *
+     * @return the array holding the text of this buffer.
+     */
+    public char[] chars() {
+        return chars;
+    }
+
+    public int lineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @param lineNumber one-based line number.
+     * @return offset of the first character of the line.
+     */
+    public int lineStart(int lineNumber) {
+        return lineStarts[lineNumber - 1];
+    }
+
+    /**
+     * @param lineNumber one-based line number.
+     * @return offset one past the last character of the line, including its
+     *         terminator.
+     */
+    public int lineEnd(int lineNumber) {
+        return lineStarts[lineNumber];
+    }
+
+    /**
+     * @param offset an offset in 0..length().
+     * @return the one-based number of the line containing offset. An offset of
+     *         length() belongs to the last line.
+     */
+    public int lineNumberAt(int offset) {
+        int low = 0;
+        int high = lineCount - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (lineStarts[middle] <= offset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low + 1;
+    }
+
+    public String lineString(int lineNumber) {
+        return substring(lineStart(lineNumber), lineEnd(lineNumber));
+    }
+
+    public String substring(int start, int end) {
+        return new String(chars, start, end - start);
+    }
+
+    public String toString() {
+        return substring(0, length);
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // factories
+
+    /**
+     * Memory-maps the named file and decodes it (with the platform charset, as
+     * InputStreamReader does) into a buffer.
+     *
+     * @throws IllegalArgumentException if the file cannot be opened or read.
+     */
+    public static SourceBuffer map(String filename, String terminator) {
+        File file = new File(filename);
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+                FileChannel channel = randomAccessFile.getChannel()) {
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CharBuffer text = decoder().decode(bytes);
+            return normalized(filename, text.array(), text.arrayOffset(), text.arrayOffset() + text.limit(),
+                    terminator);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static CharsetDecoder decoder() throws CharacterCodingException {
+        return Charset.defaultCharset().newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Makes a buffer from raw text, normalizing its line terminators ("\n", "\r"
+     * or "\r\n") to the given terminator. A last line without a terminator gets
+     * one.
+     */
+    public static SourceBuffer fromText(String filename, CharSequence text, String terminator) {
+        char[] chars = text.toString().toCharArray();
+        return normalized(filename, chars, 0, chars.length, terminator);
+    }
+
+    /**
+     * Makes a buffer from lines that already carry their terminators, such as
+     * those returned by an InputHandler's iterator.
+     */
+    public static SourceBuffer fromLines(String filename, Iterator<String> lines) {
+        Builder builder = new Builder(filename, STARTING_LINE_CAPACITY * 16);
+        while (lines.hasNext()) {
+            builder.startLine();
+            String line = lines.next();
+            builder.append(line.toCharArray(), 0, line.length());
+        }
+        return builder.build();
+    }
+
+    // text[start..end) is ours to keep: if it is already in normal form ("\n"
+    // terminators only, last line terminated) it becomes the buffer as is.
+    private static SourceBuffer normalized(String filename, char[] text, int start, int end, String terminator) {
+        if (start == 0 && isNormalForm(text, end, terminator)) {
+            return withLineStarts(filename, text, end);
+        }
+
+        Builder builder = new Builder(filename, end - start + terminator.length());
+        char[] terminatorChars = terminator.toCharArray();
+        int i = start;
+        while (i < end) {
+            builder.startLine();
+            int lineStart = i;
+            while (i < end && text[i] != '\n' && text[i] != '\r') {
+                i++;
+            }
+            builder.append(text, lineStart, i);
+            if (i < end) {
+                boolean crlf = text[i] == '\r' && i + 1 < end && text[i + 1] == '\n';
+                i += crlf ? 2 : 1;
+            }
+            builder.append(terminatorChars, 0, terminatorChars.length);
+        }
+        return builder.build();
+    }
+
+    private static boolean isNormalForm(char[] text, int end, String terminator) {
+        if (!terminator.equals("\n") || (end > 0 && text[end - 1] != '\n')) {
+            return false;
+        }
+        for (int i = 0; i < end; i++) {
+            if (text[i] == '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static SourceBuffer withLineStarts(String filename, char[] text, int end) {
+        int[] lineStarts = new int[STARTING_LINE_CAPACITY];
+        int lineCount = 0;
+        for (int i = 0; i < end; i++) {
+            if (i == 0 || text[i - 1] == '\n') {
+                if (lineCount + 1 >= lineStarts.length) {
+                    lineStarts = Arrays.copyOf(lineStarts, lineStarts.length * 2);
+                }
+                lineStarts[lineCount++] = i;
+            }
+        }
+        lineStarts[lineCount] = end;
+        return new SourceBuffer(filename, text, end, lineStarts, lineCount);
+    }
+
+    private static class Builder {
+        private String filename;
+        private char[] chars;
+        private int length = 0;
+        private int[] lineStarts = new int[STARTING_LINE_CAPACITY];
+        private int lineCount = 0;
+
+        Builder(String filename, int capacity) {
+            this.filename = filename;
+            this.chars = new char[Math.max(capacity, 1)];
+        }
+
+        void startLine() {
+            if (lineCount + 1 >= lineStarts.length) {
+                lineStarts = Arrays.copyOf(lineStarts, lineStarts.length * 2);
+            }
+            lineStarts[lineCount++] = length;
+        }
+
+        void append(char[] text, int start, int end) {
+            int count = end - start;
+            ensureCapacity(length + count);
+            System.arraycopy(text, start, chars, length, count);
+            length += count;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(capacity, chars.length * 2));
+            }
+        }
+
+        SourceBuffer build() {
+            lineStarts[lineCount] = length;
+            return new SourceBuffer(filename, chars, length, lineStarts, lineCount);
+        }
+    }
+}
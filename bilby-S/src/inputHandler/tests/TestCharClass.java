@@ -0,0 +1,28 @@
+package inputHandler.tests;
+
+import inputHandler.CharClass;
+import junit.framework.TestCase;
+
+public class TestCharClass extends TestCase {
+
+    public void testAgreesWithCharacter() {
+        for (int i = Character.MIN_VALUE; i <= Character.MAX_VALUE; i++) {
+            char c = (char) i;
+            assertEquals("lowercase " + i, Character.isLowerCase(c) || c == '_', CharClass.isLowerCase(c));
+            assertEquals("digit " + i, Character.isDigit(c), CharClass.isDigit(c));
+            assertEquals("whitespace " + i, Character.isWhitespace(c), CharClass.isWhitespace(c));
+            if (Character.isDigit(c)) {
+                assertEquals("digit value " + i, Character.digit(c, 10), CharClass.digitValue(c));
+            }
+        }
+    }
+
+    public void testAsciiClasses() {
+        assertEquals(CharClass.LOWERCASE, CharClass.classOf('q'));
+        assertEquals(CharClass.LOWERCASE, CharClass.classOf('_'));
+        assertEquals(CharClass.DIGIT, CharClass.classOf('7'));
+        assertEquals(CharClass.WHITESPACE, CharClass.classOf('\t'));
+        assertEquals(0, CharClass.classOf('Q'));
+        assertEquals(0, CharClass.classOf(':'));
+    }
+}
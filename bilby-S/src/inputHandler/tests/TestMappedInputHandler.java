@@ -0,0 +1,10 @@
+package inputHandler.tests;
+
+import inputHandler.InputHandler;
+
+public class TestMappedInputHandler extends TestInputHandler {
+    @Override
+    protected InputHandler factory(String filename, String terminator) {
+        return InputHandler.fromFilename(filename, terminator, InputHandler.Mode.MAPPED);
+    }
+}
@@ -0,0 +1,96 @@
+package inputHandler.tests;
+
+import static inputHandler.tests.FixtureDefinitions.*;
+
+import inputHandler.InputHandler;
+import inputHandler.LocatedChar;
+import inputHandler.LocatedCharStream;
+import inputHandler.PackedLocation;
+import inputHandler.PushbackCharStream;
+import inputHandler.SourceBuffer;
+import inputHandler.TextLocation;
+import junit.framework.TestCase;
+import lexicalAnalyzer.LexicalAnalyzer;
+import lexicalAnalyzer.TokenBuffer;
+
+public class TestPackedLocation extends TestCase {
+
+    public void testRoundTrip() {
+        TextLocation location = new TextLocation("some/file.bilby", 1234, 56);
+        TextLocation unpacked = PackedLocation.toTextLocation(PackedLocation.pack(location));
+
+        assertEquals(location.toString(), unpacked.toString());
+        assertEquals(LocatedCharStream.FLAG_END_OF_INPUT.getLocation().toString(),
+                PackedLocation.toTextLocation(LocatedCharStream.END_OF_INPUT_POSITION).toString());
+        assertSame(TextLocation.nullInstance(), PackedLocation.toTextLocation(PackedLocation.NO_LOCATION));
+    }
+
+    public void testPrimitiveStreamMatchesLocatedChars() {
+        LocatedCharStream located = new LocatedCharStream(InputHandler.fromFilename(SIMPLE_FIXTURE_FILENAME));
+        LocatedCharStream primitive = new LocatedCharStream(InputHandler.fromFilename(SIMPLE_FIXTURE_FILENAME));
+
+        while (located.hasNext()) {
+            LocatedChar expected = located.next();
+            char actual = primitive.nextChar();
+            assertEquals(expected.getCharacter().charValue(), actual);
+            assertEquals(expected.getLocation().toString(), primitive.location().toString());
+        }
+        assertEquals(LocatedCharStream.NULL_CHAR, primitive.nextChar());
+        assertTrue(primitive.isEndOfInput());
+    }
+
+    public void testPushbackRestoresPosition() {
+        PushbackCharStream stream = PushbackCharStream.make(InputHandler.fromFilename(SIMPLE_FIXTURE_FILENAME));
+
+        char first = stream.nextChar();
+        long firstPosition = stream.position();
+        char second = stream.nextChar();
+        stream.pushback(second, stream.position());
+        stream.pushback(first, firstPosition);
+
+        assertEquals(first, stream.nextChar());
+        assertEquals(firstPosition, stream.position());
+        assertEquals(second, stream.nextChar());
+        assertEquals(2, PackedLocation.position(stream.position()) + 1);
+    }
+
+    // more file names in all than the registry holds, a compilation's worth at
+    // a time.
+    public void testReleasingFiles() {
+        for (int compilation = 0; compilation < 100; compilation++) {
+            int mark = PackedLocation.fileMark();
+            for (int i = 0; i < 1000; i++) {
+                String filename = "file" + compilation + "-" + i;
+                long packed = PackedLocation.pack(PackedLocation.fileIndex(filename), 1, 2);
+                assertEquals(filename, PackedLocation.filename(packed));
+            }
+            PackedLocation.releaseFilesTo(mark);
+            assertEquals(mark, PackedLocation.fileMark());
+        }
+        assertEquals(PackedLocation.END_OF_INPUT_FILENAME,
+                PackedLocation.filename(LocatedCharStream.END_OF_INPUT_POSITION));
+    }
+
+    // positions past 2^24 - 2 on a line are clamped, but offsets are not.
+    public void testOffsetsPastPackedLimits() {
+        int spaces = (1 << 24) + 5;
+        String text = " ".repeat(spaces) + "abc 12\n";
+        SourceBuffer source = SourceBuffer.fromText("long", text, "\n");
+
+        TokenBuffer tokens = TokenBuffer.lex(new LexicalAnalyzer(PushbackCharStream.make(source, 0)));
+        assertEquals("abc", tokens.lexeme(0));
+        assertEquals("12", tokens.lexeme(1));
+
+        PushbackCharStream stream = PushbackCharStream.make(source, spaces - 1);
+        stream.nextChar();
+        assertEquals('a', stream.nextChar());
+        assertEquals(spaces, stream.offset());
+        assertTrue(PackedLocation.isClamped(stream.position()));
+        try {
+            stream.offsetOf(stream.position());
+            fail("offsetOf a clamped position");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package inputHandler.tests;
+
+import static inputHandler.tests.FixtureDefinitions.*;
+
+import inputHandler.InputHandler;
+import inputHandler.PushbackCharStream;
+import junit.framework.TestCase;
+
+public class TestPushbackCharStream extends TestCase {
+    private PushbackCharStream stream(int capacity) {
+        return new PushbackCharStream(InputHandler.fromFilename(SIMPLE_FIXTURE_FILENAME), capacity);
+    }
+
+    public void testPeekDoesNotConsume() {
+        PushbackCharStream stream = stream(4);
+
+        assertEquals('h', stream.peekChar());
+        assertEquals('l', stream.peekChar(3));
+        assertEquals('h', stream.nextChar());
+        assertEquals('e', stream.nextChar());
+        assertEquals(1, stream.location().getPosition());
+    }
+
+    public void testMarkAndReset() {
+        PushbackCharStream stream = stream(4);
+
+        stream.nextChar();
+        stream.mark();
+        long markedPosition = stream.position();
+        assertEquals('e', stream.nextChar());
+        assertEquals('l', stream.nextChar());
+        stream.reset();
+
+        assertEquals(markedPosition, stream.position());
+        assertEquals('e', stream.nextChar());
+    }
+
+    public void testMarkExpiresPastCapacity() {
+        PushbackCharStream stream = stream(4);
+
+        stream.mark();
+        for (int i = 0; i < 5; i++) {
+            stream.nextChar();
+        }
+        try {
+            stream.reset();
+            fail("reset succeeded past the buffer capacity");
+        } catch (IllegalStateException e) {
+        }
+    }
+
+    public void testPushbackAndEndOfInput() {
+        PushbackCharStream stream = stream(4);
+
+        char first = stream.nextChar();
+        stream.pushback(first, stream.position());
+        assertEquals(first, stream.nextChar());
+
+        while (stream.hasNext()) {
+            stream.nextChar();
+        }
+        assertEquals(PushbackCharStream.NULL_CHAR, stream.peekChar());
+        assertFalse(stream.hasNext());
+        stream.nextChar();
+        assertTrue(stream.isEndOfInput());
+    }
+}
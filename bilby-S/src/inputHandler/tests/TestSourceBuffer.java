@@ -0,0 +1,54 @@
+package inputHandler.tests;
+
+import static inputHandler.tests.FixtureDefinitions.*;
+
+import inputHandler.InputHandler;
+import inputHandler.LocatedChar;
+import inputHandler.LocatedCharStream;
+import inputHandler.SourceBuffer;
+import junit.framework.TestCase;
+
+public class TestSourceBuffer extends TestCase {
+
+    public void testMappedLines() {
+        SourceBuffer buffer = SourceBuffer.map(SIMPLE_FIXTURE_FILENAME, "\n");
+
+        assertEquals(simpleFixtureStrings.length, buffer.lineCount());
+        for (int i = 0; i < simpleFixtureStrings.length; i++) {
+            int lineNumber = i + 1;
+            assertEquals(simpleFixtureStrings[i] + "\n", buffer.lineString(lineNumber));
+            assertEquals(lineNumber, buffer.lineNumberAt(buffer.lineStart(lineNumber)));
+        }
+        assertEquals(buffer.length(), buffer.lineEnd(buffer.lineCount()));
+    }
+
+    public void testTerminatorsAreNormalized() {
+        SourceBuffer buffer = SourceBuffer.fromText("text", "ab\r\ncd\re\n\nf", "$");
+
+        assertEquals("ab$cd$e$$f$", buffer.toString());
+        assertEquals(5, buffer.lineCount());
+        assertEquals("$", buffer.lineString(4));
+        assertEquals(4, buffer.lineNumberAt(8));
+    }
+
+    public void testEmptyText() {
+        SourceBuffer buffer = SourceBuffer.fromText("text", "", "\n");
+
+        assertEquals(0, buffer.length());
+        assertEquals(0, buffer.lineCount());
+    }
+
+    public void testMappedStreamMatchesLineByLineStream() {
+        LocatedCharStream lineByLine = new LocatedCharStream(InputHandler.fromFilename(SIMPLE_FIXTURE_FILENAME));
+        LocatedCharStream mapped = new LocatedCharStream(
+                InputHandler.fromFilename(SIMPLE_FIXTURE_FILENAME, InputHandler.Mode.MAPPED));
+
+        while (lineByLine.hasNext()) {
+            assertTrue(mapped.hasNext());
+            LocatedChar expected = lineByLine.next();
+            LocatedChar actual = mapped.next();
+            assertEquals(expected.toString(), actual.toString());
+        }
+        assertFalse(mapped.hasNext());
+    }
+}
@@ -0,0 +1,197 @@
+package lexicalAnalyzer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import inputHandler.PushbackCharStream;
+import inputHandler.SourceBuffer;
+
+/**
+ * Brings a TokenBuffer up to date with an edited source by re-lexing only
+ * around the edits.
+ * <p>
+ * For each edit, lexing restarts at the end of the last old token that ends
+ * before the edit, and runs until it produces, past the edit, a token that
+ * the old stream also has (same kind and lexeme, at the same place once the
+ * edit's shift is accounted for). From there the old tokens are reused,
+ * shifted, up to the next edit. Edits whose re-lexing runs into one another
+ * are handled in one run. The result equals a TokenBuffer of the whole edited
+ * source.
+ * <p>
+ * Lexical errors are logged for the re-lexed text only. The result shares the
+ * previous buffer's SymbolPool, so identifier symbols stay the same.
+ */
+public class IncrementalLexer {
+    private TokenBuffer previous;
+    private SourceBuffer oldSource;
+    private SourceBuffer newSource;
+
+    // per edit, in old and new offsets; shift[i] and lineShift[i] move text
+    // after edit i (and before edit i+1) from old to new.
+    private int[] oldStarts;
+    private int[] newStarts;
+    private int[] newEnds;
+    private int[] shifts;
+    private int[] lineShifts;
+
+    private TokenBuffer result;
+    private int resyncEdit;
+
+    private IncrementalLexer(TokenBuffer previous, SourceBuffer edited, List<LineEdit> edits) {
+        this.previous = previous;
+        this.oldSource = previous.sourceBuffer();
+        this.newSource = edited;
+        locateEdits(edits);
+    }
+
+    /**
+     * @param previous the tokens of the source before the edits.
+     * @param edited   the source after the edits.
+     * @param edits    non-overlapping edits, in terms of the source before.
+     * @return the tokens of edited.
+     * @throws IllegalArgumentException if the edits overlap or do not account
+     *                                  for the difference in line counts.
+     */
+    public static TokenBuffer relex(TokenBuffer previous, SourceBuffer edited, List<LineEdit> edits) {
+        return new IncrementalLexer(previous, edited, edits).relex();
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // edits as offsets
+
+    private void locateEdits(List<LineEdit> unsortedEdits) {
+        List<LineEdit> edits = new ArrayList<LineEdit>(unsortedEdits);
+        Collections.sort(edits);
+        int count = edits.size();
+        oldStarts = new int[count];
+        newStarts = new int[count];
+        newEnds = new int[count];
+        shifts = new int[count];
+        lineShifts = new int[count];
+
+        int lineShift = 0;
+        int previousOldEnd = 0;
+        for (int i = 0; i < count; i++) {
+            LineEdit edit = edits.get(i);
+            int oldFirst = edit.getFirstLine();
+            int newFirst = oldFirst + lineShift;
+            oldStarts[i] = lineOffset(oldSource, oldFirst);
+            int oldEnd = lineOffset(oldSource, oldFirst + edit.getOldLineCount());
+            newStarts[i] = lineOffset(newSource, newFirst);
+            newEnds[i] = lineOffset(newSource, newFirst + edit.getNewLineCount());
+            lineShift += edit.lineDelta();
+            shifts[i] = newEnds[i] - oldEnd;
+            lineShifts[i] = lineShift;
+
+            if (oldStarts[i] < previousOldEnd) {
+                throw new IllegalArgumentException("overlapping line edits: " + edits);
+            }
+            if (newStarts[i] - oldStarts[i] != shiftBefore(i)) {
+                throw new IllegalArgumentException("line edits " + edits + " do not match the edited source");
+            }
+            previousOldEnd = oldEnd;
+        }
+        if (oldSource.lineCount() + lineShift != newSource.lineCount()) {
+            throw new IllegalArgumentException("line edits " + edits + " do not match the edited source");
+        }
+    }
+
+    private static int lineOffset(SourceBuffer source, int lineNumber) {
+        if (lineNumber > source.lineCount()) {
+            if (lineNumber > source.lineCount() + 1) {
+                throw new IllegalArgumentException("line " + lineNumber + " is past the end of " + source.fileName());
+            }
+            return source.length();
+        }
+        return source.lineStart(lineNumber);
+    }
+
+    private int shiftBefore(int edit) {
+        return edit == 0 ? 0 : shifts[edit - 1];
+    }
+
+    private int lineShiftBefore(int edit) {
+        return edit == 0 ? 0 : lineShifts[edit - 1];
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // splicing
+
+    private TokenBuffer relex() {
+        result = new TokenBuffer(newSource, previous.symbolPool(), previous.size() + 16);
+        int oldIndex = 0;
+        int edit = 0;
+        while (true) {
+            oldIndex = copyOldTokens(oldIndex, edit);
+            if (endsStream()) {
+                return result;
+            }
+            oldIndex = relexAcross(edit);
+            if (endsStream()) {
+                return result;
+            }
+            edit = resyncEdit;
+        }
+    }
+
+    // copies old tokens from oldIndex on that end before edit starts (all of
+    // them if there is no such edit), and returns the index of the first one
+    // not copied.
+    private int copyOldTokens(int oldIndex, int edit) {
+        int limit = edit < oldStarts.length ? oldStarts[edit] : Integer.MAX_VALUE;
+        int shift = shiftBefore(edit);
+        int lineShift = lineShiftBefore(edit);
+        while (oldIndex < previous.size() && previous.end(oldIndex) < limit) {
+            result.add(previous, oldIndex, shift, lineShift);
+            oldIndex++;
+        }
+        return oldIndex;
+    }
+
+    private int resumeOffset() {
+        return result.size() == 0 ? 0 : result.end(result.size() - 1);
+    }
+
+    private boolean endsStream() {
+        return result.size() > 0 && result.kind(result.size() - 1) == TokenBuffer.NULL_TOKEN;
+    }
+
+    // re-lexes from the end of the tokens so far until a token past edit
+    // matches an old one, or the stream ends. Returns the index of the
+    // matching old token, and leaves the index of the first edit after it in
+    // resyncEdit.
+    private int relexAcross(int edit) {
+        SymbolPool symbols = previous.symbolPool();
+        LexicalAnalyzer analyzer = new LexicalAnalyzer(PushbackCharStream.make(newSource, resumeOffset()), symbols);
+        TokenBuffer relexed = new TokenBuffer(newSource, symbols, 16);
+        int firstEdit = edit;
+
+        while (true) {
+            analyzer.scanNextLexeme();
+            relexed.add(analyzer);
+            int token = relexed.size() - 1;
+            int start = relexed.start(token);
+
+            while (edit < newEnds.length && newEnds[edit] <= start) {
+                edit++;
+            }
+            boolean insideEdit = edit < newStarts.length && newStarts[edit] <= start;
+            if (!insideEdit && edit > firstEdit) {
+                int oldIndex = previous.indexAt(start - shiftBefore(edit));
+                if (oldIndex >= 0 && isSameToken(relexed, token, oldIndex)) {
+                    resyncEdit = edit;
+                    return oldIndex;
+                }
+            }
+            result.add(relexed, token);
+            if (relexed.kind(token) == TokenBuffer.NULL_TOKEN) {
+                return previous.size();
+            }
+        }
+    }
+
+    private boolean isSameToken(TokenBuffer relexed, int token, int oldIndex) {
+        return relexed.kind(token) == previous.kind(oldIndex) && relexed.length(token) == previous.length(oldIndex);
+    }
+}
@@ -9,10 +9,11 @@ public enum Keyword implements Lextant {
 
     private String lexeme;
     private Token prototype;
+    private static LexemeMap<Keyword> lexemeToKeyword = new LexemeMap<Keyword>(values(), NULL_KEYWORD);
 
     private Keyword(String lexeme) {
         this.lexeme = lexeme;
-        this.prototype = LextantToken.make(TextLocation.nullInstance(), lexeme, this);
+        this.prototype = LextantToken.make(TextLocation.nullInstance(), this);
     }
 
     public String getLexeme() {
@@ -24,23 +25,14 @@ public enum Keyword implements Lextant {
     }
 
     public static Keyword forLexeme(String lexeme) {
-        for (Keyword keyword : values()) {
-            if (keyword.lexeme.equals(lexeme)) {
-                return keyword;
-            }
-        }
-        return NULL_KEYWORD;
+        return lexemeToKeyword.forLexeme(lexeme);
+    }
+
+    public static Keyword forLexeme(char[] chars, int start, int length) {
+        return lexemeToKeyword.forLexeme(chars, start, length);
     }
 
     public static boolean isAKeyword(String lexeme) {
         return forLexeme(lexeme) != NULL_KEYWORD;
     }
-
-    /*
-     * the following hashtable lookup can replace the serial-search implementation
-     * of forLexeme() above. It is faster but less clear. private static
-     * LexemeMap<Keyword> lexemeToKeyword = new LexemeMap<Keyword>(values(),
-     * NULL_KEYWORD); public static Keyword forLexeme(String lexeme) { return
-     * lexemeToKeyword.forLexeme(lexeme); }
-     */
 }
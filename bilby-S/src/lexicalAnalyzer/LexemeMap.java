@@ -1,24 +1,120 @@
 package lexicalAnalyzer;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Map from lexeme to lextant, built as a collision-free (perfect) hash table.
+ * <p>
+ * The hash of a lexeme is String.hashCode() (computed over a char range when
+ * looking up a range), scrambled by a multiplier and cut down to the table
+ * size. At construction time multipliers, and if need be larger tables, are
+ * tried until every lexeme gets its own slot. A lookup is then one hash, one
+ * probe and one comparison, and never needs a String.
+ * <p>
+ * Empty lexemes are not entered; looking one up gives the null value.
+ */
 public class LexemeMap<T extends Lextant> {
-    private Map<String, T> lexemeToT = new HashMap<String, T>();
+    private static final int SEEDS_PER_SIZE = 256;
+    private static final int INITIAL_SEED = 0x9E3779B1;
+
+    private Lextant[] slots;
+    private int shift;
+    private int multiplier;
     private T nullValue;
 
     public LexemeMap(T[] values, T nullValue) {
         this.nullValue = nullValue;
-        buildMap(values);
+        buildTable(values);
     }
 
+    //////////////////////////////////////////////////////////////////////////////
+    // lookup
+
     public T forLexeme(String lexeme) {
-        return lexemeToT.getOrDefault(lexeme, nullValue);
+        T result = inSlot(lexeme.hashCode());
+        if (result != nullValue && result.getLexeme().equals(lexeme)) {
+            return result;
+        }
+        return nullValue;
+    }
+
+    /**
+     * @return the lextant whose lexeme is chars[start..start+length), or the
+     *         null value.
+     */
+    public T forLexeme(char[] chars, int start, int length) {
+        int hash = 0;
+        for (int i = start; i < start + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        T result = inSlot(hash);
+        if (result != nullValue && matches(result.getLexeme(), chars, start, length)) {
+            return result;
+        }
+        return nullValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T inSlot(int hash) {
+        Lextant lextant = slots[slot(hash, multiplier, shift)];
+        return lextant == null ? nullValue : (T) lextant;
+    }
+
+    private static boolean matches(String lexeme, char[] chars, int start, int length) {
+        if (lexeme.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (lexeme.charAt(i) != chars[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int slot(int hash, int multiplier, int shift) {
+        return (hash * multiplier) >>> shift;
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // construction
+
+    private void buildTable(T[] values) {
+        List<T> entries = new ArrayList<T>();
+        for (T value : values) {
+            if (!value.getLexeme().isEmpty()) {
+                entries.add(value);
+            }
+        }
+
+        int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(2 * Math.max(entries.size(), 1) - 1));
+        while (bits < 31) {
+            int seed = INITIAL_SEED;
+            for (int attempt = 0; attempt < SEEDS_PER_SIZE; attempt++) {
+                if (tryTable(entries, bits, seed)) {
+                    return;
+                }
+                seed += 2 * 0x61C88647;
+            }
+            bits++;
+        }
+        throw new IllegalStateException("no perfect hash found for lexemes");
     }
 
-    private void buildMap(T[] values) {
-        for (T token : values) {
-            lexemeToT.put(token.getLexeme(), token);
+    private boolean tryTable(List<T> entries, int bits, int seed) {
+        int tableShift = 32 - bits;
+        Lextant[] table = new Lextant[1 << bits];
+        for (T entry : entries) {
+            int slot = slot(entry.getLexeme().hashCode(), seed, tableShift);
+            if (table[slot] != null) {
+                return false;
+            }
+            table[slot] = entry;
         }
+        slots = table;
+        shift = tableShift;
+        multiplier = seed;
+        return true;
     }
 }
@@ -1,11 +1,16 @@
 package lexicalAnalyzer;
 
-import logging.BilbyLogger;
+import java.util.ArrayList;
+import java.util.List;
 
+import inputHandler.CharClass;
 import inputHandler.InputHandler;
 import inputHandler.LocatedChar;
 import inputHandler.LocatedCharStream;
+import inputHandler.PackedLocation;
 import inputHandler.PushbackCharStream;
+import inputHandler.SourceBuffer;
+import inputHandler.TextLocation;
 import tokens.IdentifierToken;
 import tokens.LextantToken;
 import tokens.NullToken;
@@ -15,115 +20,277 @@ import tokens.Token;
 import static lexicalAnalyzer.PunctuatorScanningAids.*;
 
 public class LexicalAnalyzer extends ScannerImp {
+    // kinds of lexeme
+    public static final int IDENTIFIER = 0;
+    public static final int NUMBER = 1;
+    public static final int LEXTANT = 2;
+    public static final int NULL_TOKEN = 3;
+
+    // description of the lexeme last scanned
+    private int lexemeKind;
+    private Lextant lexemeLextant;
+    private long lexemePosition;
+    private int lexemeOffset; // exact even where lexemePosition is clamped
+    private int lexemeStart;
+    private int lexemeLength;
+    private int lexemeValue;
+    private int lexemeSymbol;
+
+    private SymbolPool symbols;
+    private List<LexicalError> deferredErrors; // null if errors are logged as found
+    private int errorBudget = LexicalError.DEFAULT_ERROR_BUDGET;
+    private int errorCount = 0;
+
+    private static final int MAX_DISPLAYED_INVALID_CHARACTERS = 20;
+
     public static LexicalAnalyzer make(String filename) {
-        InputHandler handler = InputHandler.fromFilename(filename);
+        InputHandler handler = InputHandler.fromFilename(filename, InputHandler.Mode.MAPPED);
         PushbackCharStream charStream = PushbackCharStream.make(handler);
         return new LexicalAnalyzer(charStream);
     }
 
     public LexicalAnalyzer(PushbackCharStream input) {
+        this(input, new SymbolPool());
+    }
+
+    /**
+     * @param symbols the pool to intern identifiers in; share one pool across
+     *                all lexers of a compilation.
+     */
+    public LexicalAnalyzer(PushbackCharStream input, SymbolPool symbols) {
         super(input);
+        this.symbols = symbols;
+    }
+
+    public SourceBuffer sourceBuffer() {
+        return input.sourceBuffer();
+    }
+
+    public SymbolPool symbolPool() {
+        return symbols;
     }
 
     //////////////////////////////////////////////////////////////////////////////
     // Token-finding main dispatch
+    // Scanning works on bare chars and packed positions, and describes each
+    // lexeme by its kind, lextant, position, and range in the source buffer.
+    // A Token (and its TextLocation) is made from that description only when
+    // asked for.
 
     @Override
     protected Token findNextToken() {
-        LocatedChar ch = nextNonWhitespaceChar();
-        if (ch.isDigit()) {
-            return scanNumber(ch);
-        } else if (ch.isLowerCase()) {
-            return scanIdentifier(ch);
-        } else if (isPunctuatorStart(ch)) {
-            return PunctuatorScanner.scan(ch, input);
-        } else if (isEndOfInput(ch)) {
-            return NullToken.make(ch);
+        scanNextLexeme();
+        return lexemeToken();
+    }
+
+    /**
+     * Scans the next lexeme without making a token for it; its description is
+     * then available from the <code>lexeme...()</code> queries. Use either this
+     * or the Iterator interface on a given LexicalAnalyzer, not both.
+     * <p>
+     * Runs of characters that cannot start a token are reported (one error per
+     * run) and skipped.
+     *
+     * @return the kind of the lexeme: IDENTIFIER, NUMBER, LEXTANT, or
+     *         NULL_TOKEN at end of input (or on a character that starts no
+     *         token).
+     */
+    public int scanNextLexeme() {
+        char ch = nextNonWhitespaceChar();
+        while (!canStartLexeme(ch) && !input.isEndOfInput()) {
+            skipInvalidCharacters();
+            ch = nextNonWhitespaceChar();
+        }
+
+        lexemePosition = input.position();
+        lexemeOffset = input.offset();
+        lexemeLextant = null;
+        if (isDigit(ch)) {
+            scanNumber(ch);
+        } else if (isLowerCase(ch)) {
+            scanIdentifier();
+        } else if (isPunctuatorStartingCharacter(ch)) {
+            scanPunctuator(ch);
         } else {
-            lexicalError(ch);
-            return findNextToken();
+            lexemeKind = NULL_TOKEN;
+            lexemeStart = sourceBuffer().length();
+            lexemeLength = 0;
         }
+        return lexemeKind;
     }
 
-    private LocatedChar nextNonWhitespaceChar() {
-        LocatedChar ch = input.next();
-        while (ch.isWhitespace()) {
-            ch = input.next();
+    private char nextNonWhitespaceChar() {
+        char ch = input.nextChar();
+        while (isWhitespace(ch)) {
+            ch = input.nextChar();
         }
         return ch;
     }
 
+    private void setLexeme(int kind, int length) {
+        lexemeKind = kind;
+        lexemeStart = lexemeOffset;
+        lexemeLength = length;
+    }
+
     //////////////////////////////////////////////////////////////////////////////
-    // Integer lexical analysis
+    // the description of the lexeme last scanned
+
+    public int lexemeKind() {
+        return lexemeKind;
+    }
+
+    /**
+     * @return the lexeme's Keyword or Punctuator, or null if it is not a
+     *         lextant.
+     */
+    public Lextant lexemeLextant() {
+        return lexemeLextant;
+    }
 
-    private Token scanNumber(LocatedChar firstChar) {
-        StringBuffer buffer = new StringBuffer();
-        buffer.append(firstChar.getCharacter());
-        appendSubsequentDigits(buffer);
+    /**
+     * @return the packed location of the lexeme's first character.
+     */
+    public long lexemePosition() {
+        return lexemePosition;
+    }
+
+    /**
+     * @return offset of the lexeme in <code>sourceBuffer()</code>.
+     */
+    public int lexemeStart() {
+        return lexemeStart;
+    }
+
+    public int lexemeLength() {
+        return lexemeLength;
+    }
+
+    /**
+     * @return the value of a NUMBER lexeme (0 if it was out of range).
+     */
+    public int lexemeValue() {
+        return lexemeValue;
+    }
+
+    /**
+     * @return the symbol of an IDENTIFIER lexeme in <code>symbolPool()</code>.
+     */
+    public int lexemeSymbol() {
+        return lexemeSymbol;
+    }
+
+    /**
+     * @return a token for the lexeme last scanned. Each call makes a new token.
+     */
+    public Token lexemeToken() {
+        if (lexemeKind == LEXTANT) {
+            return LextantToken.make(lexemePosition, lexemeLextant);
+        }
+        TextLocation location = input.locationOf(lexemePosition);
+        switch (lexemeKind) {
+        case IDENTIFIER:
+            return IdentifierToken.make(location, symbols.lexeme(lexemeSymbol), lexemeSymbol);
+        case NUMBER:
+            return NumberToken.make(location, lexemeString(), lexemeValue);
+        default:
+            return NullToken.make(location);
+        }
+    }
 
-        return NumberToken.make(firstChar, buffer.toString());
+    private String lexemeString() {
+        return sourceBuffer().substring(lexemeStart, lexemeStart + lexemeLength);
     }
 
-    private void appendSubsequentDigits(StringBuffer buffer) {
-        LocatedChar c = input.next();
-        while (c.isDigit()) {
-            buffer.append(c.getCharacter());
-            c = input.next();
+    //////////////////////////////////////////////////////////////////////////////
+    // Integer lexical analysis
+    // Numbers and identifiers never span lines, so their lexemes are ranges of
+    // the source buffer.
+
+    // the value is accumulated as the digits are read; once past
+    // Integer.MAX_VALUE it stops growing, and the literal is reported.
+    private void scanNumber(char firstChar) {
+        long value = digitValue(firstChar);
+        int length = 1;
+        while (isDigit(input.peekChar())) {
+            char c = input.nextChar();
+            if (value <= Integer.MAX_VALUE) {
+                value = value * 10 + digitValue(c);
+            }
+            length++;
+        }
+        setLexeme(NUMBER, length);
+
+        if (value > Integer.MAX_VALUE) {
+            lexicalError(lexemeOffset, "Lexical error: integer literal " + lexemeString() + " out of range "
+                    + input.locationOf(lexemePosition));
+            value = 0;
         }
-        input.pushback(c);
+        lexemeValue = (int) value;
     }
 
     //////////////////////////////////////////////////////////////////////////////
     // Identifier and keyword lexical analysis
 
-    private Token scanIdentifier(LocatedChar firstChar) {
-        StringBuffer buffer = new StringBuffer();
-        buffer.append(firstChar.getCharacter());
-        appendSubsequentLowercase(buffer);
+    private void scanIdentifier() {
+        setLexeme(IDENTIFIER, 1 + skipSubsequentLowercase());
 
-        String lexeme = buffer.toString();
-        if (Keyword.isAKeyword(lexeme)) {
-            return LextantToken.make(firstChar, lexeme, Keyword.forLexeme(lexeme));
+        char[] chars = sourceBuffer().chars();
+        Keyword keyword = Keyword.forLexeme(chars, lexemeStart, lexemeLength);
+        if (keyword != Keyword.NULL_KEYWORD) {
+            lexemeKind = LEXTANT;
+            lexemeLextant = keyword;
         } else {
-            return IdentifierToken.make(firstChar, lexeme);
+            lexemeSymbol = symbols.intern(chars, lexemeStart, lexemeLength);
         }
     }
 
-    private void appendSubsequentLowercase(StringBuffer buffer) {
-        LocatedChar c = input.next();
-        while (c.isLowerCase()) {
-            buffer.append(c.getCharacter());
-            c = input.next();
+    private int skipSubsequentLowercase() {
+        int count = 0;
+        while (isLowerCase(input.peekChar())) {
+            input.nextChar();
+            count++;
         }
-        input.pushback(c);
+        return count;
     }
 
     //////////////////////////////////////////////////////////////////////////////
     // Punctuator lexical analysis
-    // old method left in to show a simple scanning method.
     // current method is the algorithm object PunctuatorScanner.java
 
+    private void scanPunctuator(char ch) {
+        Punctuator punctuator = PunctuatorScanner.scan(ch, input);
+        if (punctuator == Punctuator.NULL_PUNCTUATOR) {
+            setLexeme(NULL_TOKEN, 0);
+        } else {
+            setLexeme(LEXTANT, punctuator.getLexeme().length());
+            lexemeLextant = punctuator;
+        }
+    }
+
+    // old method left in to show a simple scanning method.
+
     @SuppressWarnings("unused")
     private Token oldScanPunctuator(LocatedChar ch) {
 
         switch (ch.getCharacter()) {
         case '*':
-            return LextantToken.make(ch, "*", Punctuator.MULTIPLY);
+            return LextantToken.make(ch, Punctuator.MULTIPLY);
         case '+':
-            return LextantToken.make(ch, "+", Punctuator.ADD);
+            return LextantToken.make(ch, Punctuator.ADD);
         case '>':
-            return LextantToken.make(ch, ">", Punctuator.GREATER);
+            return LextantToken.make(ch, Punctuator.GREATER);
         case ':':
             if (ch.getCharacter() == '=') {
-                return LextantToken.make(ch, ":=", Punctuator.ASSIGN);
+                return LextantToken.make(ch, Punctuator.ASSIGN);
             } else {
                 lexicalError(ch);
                 return (NullToken.make(ch));
             }
         case ',':
-            return LextantToken.make(ch, ",", Punctuator.PRINT_SEPARATOR);
+            return LextantToken.make(ch, Punctuator.PRINT_SEPARATOR);
         case ';':
-            return LextantToken.make(ch, ";", Punctuator.TERMINATOR);
+            return LextantToken.make(ch, Punctuator.TERMINATOR);
         default:
             lexicalError(ch);
             return (NullToken.make(ch));
@@ -132,22 +299,132 @@ public class LexicalAnalyzer extends ScannerImp {
 
     //////////////////////////////////////////////////////////////////////////////
     // Character-classification routines specific to bilby scanning.
+    // All of them are table lookups for ASCII characters.
+
+    private static boolean isDigit(char c) {
+        return CharClass.isDigit(c);
+    }
+
+    private static int digitValue(char c) {
+        return CharClass.digitValue(c);
+    }
+
+    private static boolean isLowerCase(char c) {
+        return CharClass.isLowerCase(c);
+    }
 
-    private boolean isPunctuatorStart(LocatedChar lc) {
-        char c = lc.getCharacter();
-        return isPunctuatorStartingCharacter(c);
+    private static boolean isWhitespace(char c) {
+        return CharClass.isWhitespace(c);
     }
 
-    private boolean isEndOfInput(LocatedChar lc) {
-        return lc == LocatedCharStream.FLAG_END_OF_INPUT;
+    private static boolean canStartLexeme(char c) {
+        return isDigit(c) || isLowerCase(c) || isPunctuatorStartingCharacter(c);
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // Invalid-character recovery
+    // A run of characters that are neither whitespace nor able to start a token
+    // is skipped as a whole, and reported as one error.
+
+    // the first character of the run has just been read.
+    private void skipInvalidCharacters() {
+        long start = input.position();
+        int startOffset = input.offset();
+        char first = sourceBuffer().charAt(startOffset);
+        int length = 1;
+        while (invalidCharacterIsNext()) {
+            input.nextChar();
+            length++;
+        }
+
+        if (length == 1) {
+            lexicalError(startOffset,
+                    "Lexical error: invalid character " + new LocatedChar(first, input.locationOf(start)));
+        } else {
+            lexicalError(startOffset, invalidRunMessage(start, startOffset, length));
+        }
+    }
+
+    private static boolean isInvalidCharacter(char c) {
+        return !canStartLexeme(c) && !isWhitespace(c);
+    }
+
+    private boolean invalidCharacterIsNext() {
+        return isInvalidCharacter(input.peekChar()) && input.peekPosition(0) != LocatedCharStream.END_OF_INPUT_POSITION;
+    }
+
+    // runs stop at whitespace, so never span a line.
+    private String invalidRunMessage(long start, int offset, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < Math.min(length, MAX_DISPLAYED_INVALID_CHARACTERS); i++) {
+            appendDisplayed(text, sourceBuffer().charAt(offset + i));
+        }
+        if (length > MAX_DISPLAYED_INVALID_CHARACTERS) {
+            text.append("...");
+        }
+
+        int column = PackedLocation.position(start);
+        return "Lexical error: " + length + " invalid characters \"" + text + "\" (" + PackedLocation.filename(start)
+                + " line " + PackedLocation.lineNumber(start) + ", characters " + column + "-" + (column + length - 1)
+                + ")";
+    }
+
+    private static void appendDisplayed(StringBuilder text, char c) {
+        if (c < ' ' || c >= 127) {
+            text.append(String.format("\\u%04x", (int) c));
+        } else {
+            text.append(c);
+        }
     }
 
     //////////////////////////////////////////////////////////////////////////////
     // Error-reporting
+    // Once errorBudget errors have been logged, the rest are counted but not
+    // logged. Deferred errors are all kept: whoever logs them applies a budget.
+
+    /**
+     * Sets the number of lexical errors logged before the rest are suppressed.
+     */
+    public void setErrorBudget(int errorBudget) {
+        this.errorBudget = errorBudget;
+    }
+
+    /**
+     * @return the number of lexical errors found so far, logged or not.
+     */
+    public int errorCount() {
+        return errorCount;
+    }
+
+    /**
+     * From now on, collect lexical errors instead of logging them.
+     */
+    public void deferErrors() {
+        deferredErrors = new ArrayList<LexicalError>();
+    }
+
+    /**
+     * @return the errors collected since <code>deferErrors()</code>, in source
+     *         order.
+     */
+    public List<LexicalError> deferredErrors() {
+        return deferredErrors;
+    }
+
+    // offset is that of the error in the source buffer.
+    private void lexicalError(int offset, String message) {
+        errorCount++;
+        if (deferredErrors != null) {
+            deferredErrors.add(new LexicalError(offset, message));
+        } else if (errorCount <= errorBudget) {
+            LexicalError.log(message);
+        } else if (errorCount == errorBudget + 1) {
+            LexicalError.logBudgetExhausted(errorBudget);
+        }
+    }
 
     private void lexicalError(LocatedChar ch) {
-        BilbyLogger log = BilbyLogger.getLogger("compiler.lexicalAnalyzer");
-        log.severe("Lexical error: invalid character " + ch);
+        LexicalError.log("Lexical error: invalid character " + ch);
     }
 
 }
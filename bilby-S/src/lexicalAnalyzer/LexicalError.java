@@ -0,0 +1,61 @@
+package lexicalAnalyzer;
+
+import java.util.List;
+
+import logging.BilbyLogger;
+
+/**
+ * A lexical error message, with the source-buffer offset it is about, kept for
+ * logging later. Lexers working ahead of the sequential order (see
+ * ParallelLexer) collect these instead of logging them as they go.
+ */
+public class LexicalError implements Comparable<LexicalError> {
+    public static final int DEFAULT_ERROR_BUDGET = 100;
+
+    private int offset;
+    private String message;
+
+    public LexicalError(int offset, String message) {
+        this.offset = offset;
+        this.message = message;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void log() {
+        log(message);
+    }
+
+    public static void log(String message) {
+        BilbyLogger log = BilbyLogger.getLogger("compiler.lexicalAnalyzer");
+        log.severe(message);
+    }
+
+    /**
+     * Logs errors in list order, up to budget of them, followed by a note if
+     * any were left unlogged.
+     */
+    public static void logAll(List<LexicalError> errors, int budget) {
+        for (int i = 0; i < errors.size() && i < budget; i++) {
+            errors.get(i).log();
+        }
+        if (errors.size() > budget) {
+            logBudgetExhausted(budget);
+        }
+    }
+
+    public static void logBudgetExhausted(int budget) {
+        log("Lexical error: more than " + budget + " lexical errors; the rest are not reported");
+    }
+
+    @Override
+    public int compareTo(LexicalError other) {
+        return Integer.compare(offset, other.offset);
+    }
+}
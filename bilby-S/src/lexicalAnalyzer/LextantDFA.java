@@ -0,0 +1,169 @@
+package lexicalAnalyzer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Deterministic finite automaton recognizing the lexemes of a set of lextants.
+ * It is generated from the lexemes themselves, so it follows any change to the
+ * enum it is built from.
+ * <p>
+ * The automaton is a trie flattened into a transition table indexed by state
+ * and character class. Each character that occurs in some lexeme has its own
+ * class; all other characters share class 0, which leads nowhere. A state is
+ * accepting if the characters leading to it spell a lexeme; its lextant is
+ * then <code>lextantFor(state)</code>.
+ */
+public class LextantDFA<T extends Lextant> {
+    public static final int DEAD_STATE = -1;
+    private static final int START_STATE = 0;
+    private static final int ASCII_LIMIT = 128;
+    private static final int NO_CLASS = 0;
+
+    private final int[] asciiClasses;
+    private final char[] otherChars; // sorted, with their classes in otherClasses
+    private final int[] otherClasses;
+    private final int classCount;
+    private final int[] transitions;
+    private final Lextant[] accepted;
+    private final T nullLextant;
+    private final int maximumLexemeLength;
+
+    public LextantDFA(T[] lextants, T nullLextant) {
+        this.nullLextant = nullLextant;
+
+        char[] alphabet = alphabetOf(lextants);
+        asciiClasses = new int[ASCII_LIMIT];
+        List<Character> others = new ArrayList<Character>();
+        for (int i = 0; i < alphabet.length; i++) {
+            char c = alphabet[i];
+            if (c < ASCII_LIMIT) {
+                asciiClasses[c] = i + 1;
+            } else {
+                others.add(c);
+            }
+        }
+        otherChars = new char[others.size()];
+        otherClasses = new int[others.size()];
+        for (int i = 0; i < otherChars.length; i++) {
+            otherChars[i] = others.get(i);
+            otherClasses[i] = Arrays.binarySearch(alphabet, otherChars[i]) + 1;
+        }
+        classCount = alphabet.length + 1;
+
+        TrieBuilder trie = new TrieBuilder();
+        int longest = 0;
+        for (T lextant : lextants) {
+            String lexeme = lextant.getLexeme();
+            if (!lexeme.isEmpty()) {
+                trie.add(lexeme, lextant);
+                longest = Math.max(longest, lexeme.length());
+            }
+        }
+        transitions = Arrays.copyOf(trie.transitions, trie.stateCount * classCount);
+        accepted = Arrays.copyOf(trie.accepted, trie.stateCount);
+        maximumLexemeLength = longest;
+    }
+
+    private static char[] alphabetOf(Lextant[] lextants) {
+        StringBuilder chars = new StringBuilder();
+        for (Lextant lextant : lextants) {
+            for (char c : lextant.getLexeme().toCharArray()) {
+                if (chars.indexOf(String.valueOf(c)) < 0) {
+                    chars.append(c);
+                }
+            }
+        }
+        char[] result = chars.toString().toCharArray();
+        Arrays.sort(result);
+        return result;
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // automaton
+
+    public int startState() {
+        return START_STATE;
+    }
+
+    public int transition(int state, char c) {
+        return transitions[state * classCount + classOf(c)];
+    }
+
+    public boolean isAccepting(int state) {
+        return accepted[state] != null;
+    }
+
+    /**
+     * @return the lextant whose lexeme leads to state, or the null lextant if
+     *         state is not accepting.
+     */
+    @SuppressWarnings("unchecked")
+    public T lextantFor(int state) {
+        Lextant lextant = accepted[state];
+        return lextant == null ? nullLextant : (T) lextant;
+    }
+
+    public int maximumLexemeLength() {
+        return maximumLexemeLength;
+    }
+
+    private int classOf(char c) {
+        if (c < ASCII_LIMIT) {
+            return asciiClasses[c];
+        }
+        int index = Arrays.binarySearch(otherChars, c);
+        return index < 0 ? NO_CLASS : otherClasses[index];
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // whole-lexeme matching
+
+    /**
+     * @return the lextant whose lexeme is exactly text, or the null lextant.
+     */
+    public T match(CharSequence text) {
+        int state = START_STATE;
+        for (int i = 0; i < text.length() && state != DEAD_STATE; i++) {
+            state = transition(state, text.charAt(i));
+        }
+        return state == DEAD_STATE ? nullLextant : lextantFor(state);
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // construction
+
+    private class TrieBuilder {
+        int[] transitions = newStates(new int[0], 8);
+        Lextant[] accepted = new Lextant[8];
+        int stateCount = 1;
+
+        void add(String lexeme, Lextant lextant) {
+            int state = START_STATE;
+            for (int i = 0; i < lexeme.length(); i++) {
+                int index = state * classCount + classOf(lexeme.charAt(i));
+                if (transitions[index] == DEAD_STATE) {
+                    int target = newState(); // may replace the table
+                    transitions[index] = target;
+                }
+                state = transitions[index];
+            }
+            accepted[state] = lextant;
+        }
+
+        private int newState() {
+            if (stateCount == accepted.length) {
+                transitions = newStates(transitions, stateCount * 2);
+                accepted = Arrays.copyOf(accepted, stateCount * 2);
+            }
+            return stateCount++;
+        }
+
+        private int[] newStates(int[] table, int stateCapacity) {
+            int[] result = Arrays.copyOf(table, stateCapacity * classCount);
+            Arrays.fill(result, table.length, result.length, DEAD_STATE);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package lexicalAnalyzer;
+
+/**
+ * An edit of a source, as a range of whole lines: oldLineCount lines starting
+ * at firstLine were replaced by newLineCount lines. Line numbers are one-based,
+ * as in InputHandler, and refer to the source before the edit. A firstLine one
+ * past the last line appends.
+ */
+public class LineEdit implements Comparable<LineEdit> {
+    private int firstLine;
+    private int oldLineCount;
+    private int newLineCount;
+
+    public LineEdit(int firstLine, int oldLineCount, int newLineCount) {
+        if (firstLine < 1 || oldLineCount < 0 || newLineCount < 0) {
+            throw new IllegalArgumentException(
+                    "bad line edit " + firstLine + ", " + oldLineCount + ", " + newLineCount);
+        }
+        this.firstLine = firstLine;
+        this.oldLineCount = oldLineCount;
+        this.newLineCount = newLineCount;
+    }
+
+    public static LineEdit changed(int firstLine, int lineCount) {
+        return new LineEdit(firstLine, lineCount, lineCount);
+    }
+
+    public int getFirstLine() {
+        return firstLine;
+    }
+
+    public int getOldLineCount() {
+        return oldLineCount;
+    }
+
+    public int getNewLineCount() {
+        return newLineCount;
+    }
+
+    public int lineDelta() {
+        return newLineCount - oldLineCount;
+    }
+
+    @Override
+    public int compareTo(LineEdit other) {
+        return Integer.compare(firstLine, other.firstLine);
+    }
+
+    public String toString() {
+        return "(lines " + firstLine + "+" + oldLineCount + " -> " + newLineCount + ")";
+    }
+}
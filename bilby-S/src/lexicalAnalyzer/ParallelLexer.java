@@ -0,0 +1,275 @@
+package lexicalAnalyzer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import inputHandler.InputHandler;
+import inputHandler.PushbackCharStream;
+import inputHandler.SourceBuffer;
+
+/**
+ * Lexes a source buffer in chunks, concurrently, into a TokenBuffer that is
+ * token-for-token the one a single LexicalAnalyzer would produce.
+ * <p>
+ * The buffer is cut into chunks at line starts. Each chunk is lexed by its own
+ * LexicalAnalyzer, which starts at the chunk start and records every lexeme
+ * starting inside the chunk (the last may run past the chunk's end). Lexical
+ * errors are collected rather than logged. Each chunk lexer interns into a
+ * SymbolPool of its own; identifiers are interned into the result's pool as
+ * they are stitched in.
+ * <p>
+ * A chunk's lexer may start out of step with sequential lexing, for instance
+ * inside a lexeme that began in the previous chunk. So the chunks are stitched
+ * together in order: starting at the end of the last token accepted so far, a
+ * fresh lexer re-lexes until it produces a token that the chunk's lexer also
+ * produced (same kind and lexeme range). From that token on, the two agree
+ * and the rest of the chunk is taken as is. Tokens re-lexed before that point
+ * replace the chunk's. (In bilby-S no lexeme spans a line, so this
+ * resynchronizes at once.)
+ * <p>
+ * Lexical errors are then logged in source order, up to the error budget: a
+ * chunk lexer's errors from its resynchronization point up to its chunk end,
+ * and the re-lexers' errors.
+ */
+public class ParallelLexer {
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 18;
+
+    private SourceBuffer source;
+    private int chunkSize;
+    private ForkJoinPool pool;
+    private int errorBudget = LexicalError.DEFAULT_ERROR_BUDGET;
+
+    private Chunk[] chunks;
+    private TokenBuffer result;
+    private List<LexicalError> errors;
+
+    public ParallelLexer(SourceBuffer source, int chunkSize, ForkJoinPool pool) {
+        this.source = source;
+        this.chunkSize = Math.max(chunkSize, 1);
+        this.pool = pool;
+    }
+
+    /**
+     * Sets the number of lexical errors logged before the rest are suppressed.
+     */
+    public void setErrorBudget(int errorBudget) {
+        this.errorBudget = errorBudget;
+    }
+
+    public static TokenBuffer lex(String filename) {
+        InputHandler handler = InputHandler.fromFilename(filename, InputHandler.Mode.MAPPED);
+        return lex(handler.sourceBuffer());
+    }
+
+    /**
+     * Lexes source on the common pool, or in one chunk if that pool has no
+     * parallelism to offer.
+     */
+    public static TokenBuffer lex(SourceBuffer source) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int chunkSize = pool.getParallelism() < 2 ? Integer.MAX_VALUE : DEFAULT_CHUNK_SIZE;
+        return new ParallelLexer(source, chunkSize, pool).lex();
+    }
+
+    public TokenBuffer lex() {
+        chunks = makeChunks();
+        lexChunks();
+        stitch();
+        logErrors();
+        return result;
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // chunking
+
+    private static class Chunk {
+        int start;
+        int end;
+        TokenBuffer tokens;
+        List<LexicalError> errors;
+        int resyncOffset = Integer.MAX_VALUE; // where the chunk's tokens became trusted
+        int nextToken = 0; // resynchronization search position
+
+        Chunk(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private Chunk[] makeChunks() {
+        List<Chunk> result = new ArrayList<Chunk>();
+        int start = 0;
+        int length = source.length();
+        while (start < length) {
+            int end = length;
+            if (length - start > chunkSize) {
+                end = source.lineEnd(source.lineNumberAt(start + chunkSize - 1));
+            }
+            result.add(new Chunk(start, end));
+            start = end;
+        }
+        if (result.isEmpty()) {
+            result.add(new Chunk(0, 0));
+        }
+        return result.toArray(new Chunk[result.size()]);
+    }
+
+    private void lexChunks() {
+        if (chunks.length == 1) {
+            lexChunk(chunks[0]);
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (final Chunk chunk : chunks) {
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    lexChunk(chunk);
+                    return null;
+                }
+            });
+        }
+        for (Future<Void> future : pool.invokeAll(tasks)) {
+            waitFor(future);
+        }
+    }
+
+    private void lexChunk(Chunk chunk) {
+        LexicalAnalyzer analyzer = deferringAnalyzer(chunk.start);
+        int expectedTokens = (chunk.end - chunk.start) / 4;
+        chunk.tokens = TokenBuffer.lex(analyzer, chunk.end, expectedTokens);
+        chunk.errors = analyzer.deferredErrors();
+    }
+
+    private LexicalAnalyzer deferringAnalyzer(int start) {
+        LexicalAnalyzer analyzer = new LexicalAnalyzer(PushbackCharStream.make(source, start));
+        analyzer.deferErrors();
+        return analyzer;
+    }
+
+    private static void waitFor(Future<Void> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // stitching
+
+    private void stitch() {
+        result = new TokenBuffer(source, new SymbolPool(), tokenCount());
+        errors = new ArrayList<LexicalError>();
+
+        Chunk first = chunks[0];
+        first.resyncOffset = 0;
+        appendRest(first, 0);
+
+        int next = 1;
+        while (next < chunks.length && !endsStream()) {
+            next = relexInto(next) + 1;
+        }
+    }
+
+    private int tokenCount() {
+        int count = 0;
+        for (Chunk chunk : chunks) {
+            count += chunk.tokens.size();
+        }
+        return count;
+    }
+
+    private void appendRest(Chunk chunk, int tokenIndex) {
+        for (int i = tokenIndex; i < chunk.tokens.size(); i++) {
+            result.add(chunk.tokens, i);
+        }
+    }
+
+    private boolean endsStream() {
+        return result.size() > 0 && result.kind(result.size() - 1) == TokenBuffer.NULL_TOKEN;
+    }
+
+    // re-lexes from the end of the tokens accepted so far until in step with a
+    // chunk at or after chunks[chunkIndex], or until the end of the stream.
+    // Returns the index of the last chunk reached.
+    private int relexInto(int chunkIndex) {
+        int resume = result.size() == 0 ? 0 : result.end(result.size() - 1);
+        LexicalAnalyzer analyzer = deferringAnalyzer(resume);
+        TokenBuffer relexed = new TokenBuffer(source, analyzer.symbolPool(), 1);
+
+        int owner = chunkIndex;
+        while (true) {
+            analyzer.scanNextLexeme();
+            relexed.add(analyzer);
+            int token = relexed.size() - 1;
+            int start = relexed.start(token);
+            while (owner + 1 < chunks.length && start >= chunks[owner + 1].start) {
+                owner++;
+            }
+
+            Chunk chunk = chunks[owner];
+            int match = findToken(chunk, relexed, token);
+            if (match >= 0) {
+                chunk.resyncOffset = start;
+                errors.addAll(analyzer.deferredErrors());
+                appendRest(chunk, match);
+                return owner;
+            }
+            result.add(relexed, token);
+            if (relexed.kind(token) == TokenBuffer.NULL_TOKEN) {
+                errors.addAll(analyzer.deferredErrors());
+                return owner;
+            }
+        }
+    }
+
+    private static int findToken(Chunk chunk, TokenBuffer relexed, int token) {
+        int start = relexed.start(token);
+        TokenBuffer tokens = chunk.tokens;
+        while (chunk.nextToken < tokens.size() && tokens.start(chunk.nextToken) < start) {
+            chunk.nextToken++;
+        }
+        int candidate = chunk.nextToken;
+        if (candidate < tokens.size() && tokens.isSameToken(candidate, relexed, token)) {
+            return candidate;
+        }
+        return -1;
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // errors
+
+    private void logErrors() {
+        int streamEnd = endsStream() ? result.start(result.size() - 1) : source.length();
+        for (Chunk chunk : chunks) {
+            for (LexicalError error : chunk.errors) {
+                int offset = error.getOffset();
+                if (offset >= chunk.resyncOffset && offset < chunk.end) {
+                    errors.add(error);
+                }
+            }
+        }
+        Collections.sort(errors);
+
+        List<LexicalError> distinct = new ArrayList<LexicalError>();
+        int lastOffset = -1;
+        for (LexicalError error : errors) {
+            if (error.getOffset() != lastOffset && error.getOffset() < streamEnd) {
+                distinct.add(error);
+            }
+            lastOffset = error.getOffset();
+        }
+        LexicalError.logAll(distinct, errorBudget);
+    }
+}
@@ -10,10 +10,11 @@ public enum Punctuator implements Lextant {
 
     private String lexeme;
     private Token prototype;
+    private static LexemeMap<Punctuator> lexemeToPunctuator = new LexemeMap<Punctuator>(values(), NULL_PUNCTUATOR);
 
     private Punctuator(String lexeme) {
         this.lexeme = lexeme;
-        this.prototype = LextantToken.make(TextLocation.nullInstance(), lexeme, this);
+        this.prototype = LextantToken.make(TextLocation.nullInstance(), this);
     }
 
     public String getLexeme() {
@@ -25,20 +26,11 @@ public enum Punctuator implements Lextant {
     }
 
     public static Punctuator forLexeme(String lexeme) {
-        for (Punctuator punctuator : values()) {
-            if (punctuator.lexeme.equals(lexeme)) {
-                return punctuator;
-            }
-        }
-        return NULL_PUNCTUATOR;
+        return lexemeToPunctuator.forLexeme(lexeme);
     }
 
-    /*
-     * // the following hashtable lookup can replace the implementation of forLexeme
-     * above. It is faster but less clear. private static LexemeMap<Punctuator>
-     * lexemeToPunctuator = new LexemeMap<Punctuator>(values(), NULL_PUNCTUATOR);
-     * public static Punctuator forLexeme(String lexeme) { return
-     * lexemeToPunctuator.forLexeme(lexeme); }
-     */
+    public static Punctuator forLexeme(char[] chars, int start, int length) {
+        return lexemeToPunctuator.forLexeme(chars, start, length);
+    }
 
 }
@@ -1,65 +1,54 @@
 package lexicalAnalyzer;
 
-import static lexicalAnalyzer.PunctuatorScanningAids.punctuatorSetForPrefix;
-import inputHandler.LocatedChar;
 import inputHandler.PushbackCharStream;
 
-import java.util.Set;
-
-import tokens.Token;
-
 /**
- * Algorithm object to scan to find a punctuator. Invoke only on a character
- * that can start a punctuator lexeme.
+ * Scans for a punctuator. Invoke only on a character that can start a
+ * punctuator lexeme.
  * <p>
- * PunctuatorScanner will grab input characters as long as it as seen a
- * punctuator lexeme prefix. If it discovers that it has taken input that is not
- * such a prefix, it backtracks (possibly multiple characters) until it matches
- * a punctuator.
+ * PunctuatorScanner runs the automaton generated from the Punctuator enum over
+ * the input, looking ahead as long as it is on a punctuator lexeme prefix and
+ * remembering the longest punctuator it has passed. It then consumes exactly
+ * that punctuator's characters, so the lookahead past it is left unread.
  * <p>
  * If it cannot find a punctuator starting with the given starting character, it
- * returns a NullToken at the startingCharacter's location.
+ * pushes that character back and returns NULL_PUNCTUATOR.
  * <p>
- * PunctuatorScanner uses information derived from the lexeme fields of the enum
- * constants of Punctuator, and should work regardless of what the set of
- * constants in Punctuator is. Part of derived information is in
- * PunctuatorScanningAids.java, part is in Punctuator itself.
+ * PunctuatorScanner should work regardless of what the set of constants in
+ * Punctuator is.
  */
 public class PunctuatorScanner {
-    private PushbackCharStream input;
-    private PartiallyScannedPunctuator scanned;
-
-    public static Token scan(LocatedChar startingCharacter, PushbackCharStream input) {
-        PunctuatorScanner scanner = new PunctuatorScanner(startingCharacter, input);
-        return scanner.scanPunctuator();
-    }
-
-    private PunctuatorScanner(LocatedChar startingCharacter, PushbackCharStream input) {
-        this.input = input;
-
-        scanned = new PartiallyScannedPunctuator(startingCharacter);
-    }
-
-    private Token scanPunctuator() {
-        Set<Punctuator> punctuators = punctuatorSetForPrefix(scanned.asString());
-
-        if (punctuators.size() == 1 && scanned.isPunctuator()) {
-            return scanned.asToken();
+    private static final LextantDFA<Punctuator> automaton = new LextantDFA<Punctuator>(Punctuator.values(),
+            Punctuator.NULL_PUNCTUATOR);
+
+    /**
+     * @param startingCharacter the character last read from input.
+     */
+    public static Punctuator scan(char startingCharacter, PushbackCharStream input) {
+        assert (automaton.maximumLexemeLength() <= input.capacity());
+        long startingPosition = input.position();
+        int startingOffset = input.offset();
+
+        Punctuator punctuator = Punctuator.NULL_PUNCTUATOR;
+        int punctuatorLength = 0;
+        int state = automaton.transition(automaton.startState(), startingCharacter);
+        int length = 1;
+        while (state != LextantDFA.DEAD_STATE) {
+            if (automaton.isAccepting(state)) {
+                punctuator = automaton.lextantFor(state);
+                punctuatorLength = length;
+            }
+            state = automaton.transition(state, input.peekChar(length - 1));
+            length++;
         }
 
-        if (punctuators.isEmpty() || !input.hasNext()) {
-            backupToLastPunctuatorPrefix();
-            return scanned.asToken();
+        if (punctuatorLength == 0) {
+            input.pushback(startingCharacter, startingPosition, startingOffset);
+            return Punctuator.NULL_PUNCTUATOR;
         }
-
-        scanned.add(input.next());
-        return scanPunctuator();
-    }
-
-    private void backupToLastPunctuatorPrefix() {
-        while (!scanned.isPunctuator() && !scanned.isEmpty()) {
-            LocatedChar lc = scanned.chopTail();
-            input.pushback(lc);
+        for (int i = 1; i < punctuatorLength; i++) {
+            input.nextChar();
         }
+        return punctuator;
     }
 }
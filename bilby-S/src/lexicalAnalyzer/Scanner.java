@@ -3,6 +3,32 @@ package lexicalAnalyzer;
 import java.util.Iterator;
 import tokens.Token;
 
+/**
+ * A token stream, with bounded lookahead and mark/rewind. Once the end is
+ * reached, next() and peek(k) return NullTokens.
+ */
 public interface Scanner extends Iterator<Token> {
+    /**
+     * @param k how far to look ahead: peek(0) is the token next() would return.
+     *          Must be less than <code>lookaheadCapacity()</code>.
+     * @return the k-th token ahead, without consuming anything.
+     */
+    public Token peek(int k);
 
+    public int lookaheadCapacity();
+
+    /**
+     * Remembers the current point in the stream, so that <code>rewind()</code>
+     * can return to it. The mark stays valid while fewer than
+     * <code>lookaheadCapacity()</code> tokens from it on have been read or
+     * peeked at.
+     */
+    public void mark();
+
+    /**
+     * Returns to the last mark; the tokens read since then will be read again.
+     *
+     * @throws IllegalStateException if there is no valid mark.
+     */
+    public void rewind();
 }
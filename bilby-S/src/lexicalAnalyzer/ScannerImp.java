@@ -4,28 +4,51 @@ import inputHandler.PushbackCharStream;
 import tokens.NullToken;
 import tokens.Token;
 
+/**
+ * Scanner over the tokens of a findNextToken() method.
+ * <p>
+ * Tokens are kept in a fixed-capacity ring buffer, addressed by sequence
+ * number as in PushbackCharStream: <code>cursor</code> is the sequence number
+ * of the next token to hand out and <code>filled</code> is one past the last
+ * token found. The token after the one handed out is always found at once, so
+ * that lexing (and lexical error reporting) stays one token ahead of the
+ * reader.
+ */
 public abstract class ScannerImp implements Scanner {
-    private Token nextToken;
+    public static final int LOOKAHEAD_CAPACITY = 16;
+    private static final int MASK = LOOKAHEAD_CAPACITY - 1;
+    private static final long NO_MARK = Long.MIN_VALUE;
+
+    private final Token[] tokens;
+    private long cursor;
+    private long filled;
+    private long mark;
     protected final PushbackCharStream input;
 
     protected abstract Token findNextToken();
 
+    // the first token is found on first use, not here, so that subclasses are
+    // fully constructed before findNextToken() runs.
     public ScannerImp(PushbackCharStream input) {
         super();
         this.input = input;
-        nextToken = findNextToken();
+        this.tokens = new Token[LOOKAHEAD_CAPACITY];
+        this.cursor = 0;
+        this.filled = 0;
+        this.mark = NO_MARK;
     }
 
     // Iterator<Token> implementation
     @Override
     public boolean hasNext() {
-        return !(nextToken instanceof NullToken);
+        return !(peek(0) instanceof NullToken);
     }
 
     @Override
     public Token next() {
-        Token result = nextToken;
-        nextToken = findNextToken();
+        Token result = peek(0);
+        cursor++;
+        peek(0);
         return result;
     }
 
@@ -33,4 +56,48 @@ public abstract class ScannerImp implements Scanner {
     public void remove() {
         throw new UnsupportedOperationException();
     }
-}
\ No newline at end of file
+
+    //////////////////////////////////////////////////////////////////////////////
+    // lookahead
+
+    @Override
+    public Token peek(int k) {
+        if (k < 0 || k >= LOOKAHEAD_CAPACITY) {
+            throw new IllegalArgumentException("lookahead " + k + " outside capacity " + LOOKAHEAD_CAPACITY);
+        }
+        while (filled <= cursor + k) {
+            fill();
+        }
+        return tokens[slot(cursor + k)];
+    }
+
+    @Override
+    public int lookaheadCapacity() {
+        return LOOKAHEAD_CAPACITY;
+    }
+
+    @Override
+    public void mark() {
+        mark = cursor;
+    }
+
+    @Override
+    public void rewind() {
+        if (mark == NO_MARK) {
+            throw new IllegalStateException("rewind without a valid mark");
+        }
+        cursor = mark;
+    }
+
+    private void fill() {
+        if (mark != NO_MARK && mark <= filled - LOOKAHEAD_CAPACITY) {
+            mark = NO_MARK;
+        }
+        tokens[slot(filled)] = findNextToken();
+        filled++;
+    }
+
+    private static int slot(long sequenceNumber) {
+        return (int) sequenceNumber & MASK;
+    }
+}
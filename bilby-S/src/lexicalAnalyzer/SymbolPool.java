@@ -0,0 +1,134 @@
+package lexicalAnalyzer;
+
+import java.util.Arrays;
+
+/**
+ * Interning pool for identifier lexemes, giving each distinct lexeme a dense
+ * int symbol (0, 1, 2, ... in order of first appearance) and one shared
+ * String.
+ * <p>
+ * Lexemes are interned straight from a char range, so a repeat occurrence of
+ * an identifier costs a hash and a comparison but no String. Symbols are only
+ * meaningful within their pool; a compilation uses one pool throughout, from
+ * the LexicalAnalyzer to the symbol tables.
+ * <p>
+ * Not thread-safe.
+ */
+public class SymbolPool {
+    public static final int NO_SYMBOL = -1;
+
+    private static final int STARTING_CAPACITY = 64;
+
+    private String[] lexemes; // by symbol
+    private int[] hashes; // by symbol
+    private int size;
+    private int[] slots; // symbol + 1, or 0 for an empty slot
+    private int mask;
+
+    public SymbolPool() {
+        lexemes = new String[STARTING_CAPACITY];
+        hashes = new int[STARTING_CAPACITY];
+        slots = new int[2 * STARTING_CAPACITY];
+        mask = slots.length - 1;
+        size = 0;
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // queries
+
+    public int size() {
+        return size;
+    }
+
+    public String lexeme(int symbol) {
+        return lexemes[symbol];
+    }
+
+    /**
+     * @return the symbol of lexeme, or NO_SYMBOL if it has not been interned.
+     */
+    public int symbolOf(String lexeme) {
+        int hash = lexeme.hashCode();
+        for (int slot = firstSlot(hash); slots[slot] != 0; slot = (slot + 1) & mask) {
+            int symbol = slots[slot] - 1;
+            if (hashes[symbol] == hash && lexemes[symbol].equals(lexeme)) {
+                return symbol;
+            }
+        }
+        return NO_SYMBOL;
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // interning
+
+    public int intern(String lexeme) {
+        return intern(lexeme.toCharArray(), 0, lexeme.length());
+    }
+
+    /**
+     * @return the symbol for the lexeme chars[start..start+length), interning
+     *         it if need be.
+     */
+    public int intern(char[] chars, int start, int length) {
+        int hash = 0;
+        for (int i = start; i < start + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+
+        int slot = firstSlot(hash);
+        while (slots[slot] != 0) {
+            int symbol = slots[slot] - 1;
+            if (hashes[symbol] == hash && matches(lexemes[symbol], chars, start, length)) {
+                return symbol;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return add(new String(chars, start, length), hash, slot);
+    }
+
+    // String hashes of short lexemes differ mostly in their low bits; fold the
+    // high bits in as well.
+    private int firstSlot(int hash) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static boolean matches(String lexeme, char[] chars, int start, int length) {
+        if (lexeme.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (lexeme.charAt(i) != chars[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int add(String lexeme, int hash, int slot) {
+        if (size == lexemes.length) {
+            lexemes = Arrays.copyOf(lexemes, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        int symbol = size++;
+        lexemes[symbol] = lexeme;
+        hashes[symbol] = hash;
+        slots[slot] = symbol + 1;
+
+        if (2 * size > slots.length) {
+            rehash();
+        }
+        return symbol;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        mask = slots.length - 1;
+        for (int symbol = 0; symbol < size; symbol++) {
+            int slot = firstSlot(hashes[symbol]);
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = symbol + 1;
+        }
+    }
+}
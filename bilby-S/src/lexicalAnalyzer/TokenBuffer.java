@@ -0,0 +1,568 @@
+package lexicalAnalyzer;
+
+import java.util.Arrays;
+
+import inputHandler.InputHandler;
+import inputHandler.LocatedCharStream;
+import inputHandler.PackedLocation;
+import inputHandler.PushbackCharStream;
+import inputHandler.SourceBuffer;
+import inputHandler.TextLocation;
+import tokens.IdentifierToken;
+import tokens.LextantToken;
+import tokens.NullToken;
+import tokens.NumberToken;
+import tokens.Token;
+
+/**
+ * The tokens of a whole source, stored as parallel primitive arrays rather than
+ * as Token objects: per token, a kind, the offset and length of its lexeme in
+ * the source buffer, its line and column, and its value (for numbers) or
+ * symbol (for identifiers, in the buffer's SymbolPool). Token objects are made
+ * only on request: token(index) makes a new one for each request, while the
+ * Scanner interfaces keep the last few they made (see TokenRing).
+ * <p>
+ * A kind is either the index of a lextant in <code>lextants()</code> (Keywords
+ * first, then Punctuators) or one of the negative constants IDENTIFIER, NUMBER
+ * and NULL_TOKEN. The last token is always a NULL_TOKEN, which ends the stream
+ * as a NullToken ends a LexicalAnalyzer's.
+ * <p>
+ * A TokenBuffer is a Scanner, for use by Parser. The index-based queries and
+ * Cursor are a cheaper way through it. All lexing, and so all lexical error
+ * reporting, happens when the buffer is made.
+ */
+public class TokenBuffer implements Scanner {
+    public static final int IDENTIFIER = -1;
+    public static final int NUMBER = -2;
+    public static final int NULL_TOKEN = -3;
+
+    private static final int STARTING_CAPACITY = 1024;
+    private static final int RING_CAPACITY = 16;
+    private static final int RING_MASK = RING_CAPACITY - 1;
+    private static final Lextant[] lextants = allLextants();
+    private static final int punctuatorBase = Keyword.values().length;
+
+    private SourceBuffer source;
+    private SymbolPool symbols;
+    private int[] kinds;
+    private int[] starts;
+    private int[] lengths;
+    private int[] lineNumbers;
+    private int[] columns;
+    private int[] values; // of NUMBER tokens; symbols of IDENTIFIER tokens
+    private int size;
+    private int readIndex; // of the Scanner interface
+    private int markIndex = -1; // of the Scanner interface
+    private TokenRing ring; // of the Scanner interface, made on first use
+    private int fileIndex = -1; // in PackedLocation's registry, once needed
+
+    TokenBuffer(SourceBuffer source, SymbolPool symbols, int capacity) {
+        this.source = source;
+        this.symbols = symbols;
+        this.kinds = new int[capacity];
+        this.starts = new int[capacity];
+        this.lengths = new int[capacity];
+        this.lineNumbers = new int[capacity];
+        this.columns = new int[capacity];
+        this.values = new int[capacity];
+        this.size = 0;
+        this.readIndex = 0;
+    }
+
+    private static Lextant[] allLextants() {
+        Keyword[] keywords = Keyword.values();
+        Punctuator[] punctuators = Punctuator.values();
+        Lextant[] result = Arrays.copyOf(keywords, keywords.length + punctuators.length, Lextant[].class);
+        System.arraycopy(punctuators, 0, result, keywords.length, punctuators.length);
+        return result;
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // factories
+
+    public static TokenBuffer make(String filename) {
+        InputHandler handler = InputHandler.fromFilename(filename, InputHandler.Mode.MAPPED);
+        return lex(new LexicalAnalyzer(PushbackCharStream.make(handler)));
+    }
+
+    /**
+     * Runs analyzer to the end of its input, recording every lexeme. Do not use
+     * analyzer's Iterator interface before or after.
+     */
+    public static TokenBuffer lex(LexicalAnalyzer analyzer) {
+        SourceBuffer source = analyzer.sourceBuffer();
+        return lex(analyzer, source.length(), Math.max(STARTING_CAPACITY, source.length() / 8));
+    }
+
+    /**
+     * Runs analyzer until it finds a lexeme starting at or after limit, which is
+     * not recorded, or a NULL_TOKEN, which is. The result may therefore lack the
+     * final NULL_TOKEN.
+     */
+    static TokenBuffer lex(LexicalAnalyzer analyzer, int limit, int capacity) {
+        TokenBuffer result = new TokenBuffer(analyzer.sourceBuffer(), analyzer.symbolPool(), Math.max(capacity, 1));
+        while (true) {
+            int kind = analyzer.scanNextLexeme();
+            if (kind == LexicalAnalyzer.NULL_TOKEN) {
+                result.add(analyzer);
+                return result;
+            }
+            if (analyzer.lexemeStart() >= limit) {
+                return result;
+            }
+            result.add(analyzer);
+        }
+    }
+
+    void add(LexicalAnalyzer analyzer) {
+        if (size == kinds.length) {
+            grow();
+        }
+        kinds[size] = kindOf(analyzer.lexemeKind(), analyzer.lexemeLextant());
+        starts[size] = analyzer.lexemeStart();
+        lengths[size] = analyzer.lexemeLength();
+        lineNumbers[size] = PackedLocation.lineNumber(analyzer.lexemePosition());
+        columns[size] = PackedLocation.position(analyzer.lexemePosition());
+        values[size] = analyzer.lexemeKind() == LexicalAnalyzer.IDENTIFIER ? analyzer.lexemeSymbol()
+                : analyzer.lexemeValue();
+        size++;
+    }
+
+    /**
+     * Appends a copy of the token at index in other, which must be a buffer of
+     * the same source.
+     */
+    void add(TokenBuffer other, int index) {
+        assert (other.source == source);
+        add(other, index, 0, 0);
+    }
+
+    /**
+     * Appends a copy of the token at index in other, moved by offsetDelta
+     * characters and lineDelta lines. Tokens without a line (the end-of-input
+     * NULL_TOKEN) keep theirs. Identifiers from a buffer with another
+     * SymbolPool are interned anew.
+     */
+    void add(TokenBuffer other, int index, int offsetDelta, int lineDelta) {
+        if (size == kinds.length) {
+            grow();
+        }
+        int lineNumber = other.lineNumbers[index];
+        kinds[size] = other.kinds[index];
+        starts[size] = other.starts[index] + offsetDelta;
+        lengths[size] = other.lengths[index];
+        lineNumbers[size] = lineNumber < 0 ? lineNumber : lineNumber + lineDelta;
+        columns[size] = other.columns[index];
+        if (kinds[size] == IDENTIFIER && other.symbols != symbols) {
+            values[size] = symbols.intern(other.source.chars(), other.starts[index], lengths[size]);
+        } else {
+            values[size] = other.values[index];
+        }
+        size++;
+    }
+
+    /**
+     * @return true if the token at index and the token at otherIndex in other
+     *         have the same kind and lexeme range.
+     */
+    boolean isSameToken(int index, TokenBuffer other, int otherIndex) {
+        return kinds[index] == other.kinds[otherIndex] && starts[index] == other.starts[otherIndex]
+                && lengths[index] == other.lengths[otherIndex];
+    }
+
+    private static int kindOf(int lexemeKind, Lextant lextant) {
+        switch (lexemeKind) {
+        case LexicalAnalyzer.IDENTIFIER:
+            return IDENTIFIER;
+        case LexicalAnalyzer.NUMBER:
+            return NUMBER;
+        case LexicalAnalyzer.LEXTANT:
+            return lextantIndex(lextant);
+        default:
+            return NULL_TOKEN;
+        }
+    }
+
+    private static int lextantIndex(Lextant lextant) {
+        if (lextant instanceof Keyword) {
+            return ((Keyword) lextant).ordinal();
+        }
+        return punctuatorBase + ((Punctuator) lextant).ordinal();
+    }
+
+    private void grow() {
+        int capacity = kinds.length * 2;
+        kinds = Arrays.copyOf(kinds, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        lineNumbers = Arrays.copyOf(lineNumbers, capacity);
+        columns = Arrays.copyOf(columns, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // index-based queries
+
+    public static Lextant[] lextants() {
+        return lextants.clone();
+    }
+
+    public SourceBuffer sourceBuffer() {
+        return source;
+    }
+
+    public SymbolPool symbolPool() {
+        return symbols;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int kind(int index) {
+        return kinds[index];
+    }
+
+    public boolean isLextant(int index) {
+        return kinds[index] >= 0;
+    }
+
+    /**
+     * @return the token's Keyword or Punctuator, or null if it is not a lextant.
+     */
+    public Lextant lextant(int index) {
+        return isLextant(index) ? lextants[kinds[index]] : null;
+    }
+
+    public boolean isLextant(int index, Lextant... candidates) {
+        int kind = kinds[index];
+        if (kind < 0) {
+            return false;
+        }
+        for (Lextant candidate : candidates) {
+            if (lextants[kind] == candidate) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int start(int index) {
+        return starts[index];
+    }
+
+    public int length(int index) {
+        return lengths[index];
+    }
+
+    /**
+     * @return offset one past the end of the token's lexeme.
+     */
+    public int end(int index) {
+        return starts[index] + lengths[index];
+    }
+
+    public int lineNumber(int index) {
+        return lineNumbers[index];
+    }
+
+    public int column(int index) {
+        return columns[index];
+    }
+
+    /**
+     * @return the index of the token whose lexeme starts at offset, or -1 if
+     *         there is none.
+     */
+    public int indexAt(int offset) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle] < offset) {
+                low = middle + 1;
+            } else if (starts[middle] > offset) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the value of a NUMBER token.
+     */
+    public int value(int index) {
+        return values[index];
+    }
+
+    /**
+     * @return the symbol of an IDENTIFIER token in <code>symbolPool()</code>.
+     */
+    public int symbol(int index) {
+        return values[index];
+    }
+
+    public String lexeme(int index) {
+        return source.substring(starts[index], starts[index] + lengths[index]);
+    }
+
+    private long packedLocation(int index) {
+        if (fileIndex < 0) {
+            fileIndex = PackedLocation.fileIndex(source.fileName());
+        }
+        return PackedLocation.pack(fileIndex, lineNumbers[index], columns[index]);
+    }
+
+    public TextLocation location(int index) {
+        if (lineNumbers[index] < 0) {
+            return LocatedCharStream.FLAG_END_OF_INPUT.getLocation();
+        }
+        return new TextLocation(source.fileName(), lineNumbers[index], columns[index]);
+    }
+
+    /**
+     * @return a new Token for the token at index.
+     */
+    public Token token(int index) {
+        if (isLextant(index)) {
+            return LextantToken.make(packedLocation(index), lextant(index));
+        }
+        TextLocation location = location(index);
+        switch (kinds[index]) {
+        case IDENTIFIER:
+            return IdentifierToken.make(location, symbols.lexeme(values[index]), values[index]);
+        case NUMBER:
+            return NumberToken.make(location, lexeme(index), values[index]);
+        default:
+            return NullToken.make(location);
+        }
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // Scanner implementation
+    // next() and peek(k) keep returning the final NullToken once it is reached.
+    // The whole stream is buffered, so lookahead and marks reach any distance.
+
+    @Override
+    public boolean hasNext() {
+        return kinds[readIndex] != NULL_TOKEN;
+    }
+
+    @Override
+    public Token next() {
+        Token result = ring().token(readIndex);
+        if (readIndex < size - 1) {
+            readIndex++;
+        }
+        return result;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Token peek(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("lookahead " + k + " is negative");
+        }
+        return ring().token((int) Math.min((long) readIndex + k, size - 1));
+    }
+
+    private TokenRing ring() {
+        if (ring == null) {
+            ring = new TokenRing();
+        }
+        return ring;
+    }
+
+    @Override
+    public int lookaheadCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void mark() {
+        markIndex = readIndex;
+    }
+
+    @Override
+    public void rewind() {
+        if (markIndex < 0) {
+            throw new IllegalStateException("rewind without a valid mark");
+        }
+        readIndex = markIndex;
+    }
+
+    /**
+     * @return the index of the token next() will return.
+     */
+    public int position() {
+        return readIndex;
+    }
+
+    /**
+     * Makes index the token next() will return.
+     */
+    public void moveTo(int index) {
+        assert (0 <= index && index < size);
+        readIndex = index;
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // range scanners
+
+    /**
+     * @return a Scanner over the tokens at from..to-1, followed by NullTokens
+     *         at the location of token to. It has its own read position and
+     *         mark, so any number of range scanners may be read at once.
+     */
+    public Scanner scanner(int from, int to) {
+        assert (0 <= from && from <= to && to <= size);
+        return new RangeScanner(from, to);
+    }
+
+    private class RangeScanner implements Scanner {
+        private final int end;
+        private int index;
+        private int markIndex = -1;
+        private final TokenRing ring = new TokenRing();
+        private Token endToken = null; // made on first use
+
+        RangeScanner(int from, int to) {
+            this.index = from;
+            this.end = to;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < end && kinds[index] != NULL_TOKEN;
+        }
+
+        @Override
+        public Token next() {
+            Token result = peek(0);
+            if (index < end) {
+                index++;
+            }
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Token peek(int k) {
+            if (k < 0) {
+                throw new IllegalArgumentException("lookahead " + k + " is negative");
+            }
+            if ((long) index + k >= end) {
+                if (endToken == null) {
+                    endToken = NullToken.make(location(Math.min(end, size - 1)));
+                }
+                return endToken;
+            }
+            return ring.token(index + k);
+        }
+
+        @Override
+        public int lookaheadCapacity() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public void mark() {
+            markIndex = index;
+        }
+
+        @Override
+        public void rewind() {
+            if (markIndex < 0) {
+                throw new IllegalStateException("rewind without a valid mark");
+            }
+            index = markIndex;
+        }
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // token ring
+
+    /**
+     * The Tokens a Scanner last made, by index mod RING_CAPACITY, so that
+     * peeking again at a token, or reading one that was peeked at, makes no
+     * new Token. Each Scanner has its own, so range scanners on different
+     * threads share nothing.
+     */
+    private class TokenRing {
+        private final Token[] tokens = new Token[RING_CAPACITY];
+        private final int[] indices = new int[RING_CAPACITY];
+
+        TokenRing() {
+            Arrays.fill(indices, -1);
+        }
+
+        Token token(int index) {
+            int slot = index & RING_MASK;
+            if (indices[slot] != index) {
+                tokens[slot] = TokenBuffer.this.token(index);
+                indices[slot] = index;
+            }
+            return tokens[slot];
+        }
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // Cursor
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Index into the buffer with queries on the token there. Like the Scanner
+     * interface, a cursor stops at the final NULL_TOKEN.
+     */
+    public class Cursor {
+        private int index = 0;
+
+        public int index() {
+            return index;
+        }
+
+        public void moveTo(int index) {
+            assert (0 <= index && index < size);
+            this.index = index;
+        }
+
+        public boolean atEnd() {
+            return kinds[index] == NULL_TOKEN;
+        }
+
+        public void advance() {
+            if (index < size - 1) {
+                index++;
+            }
+        }
+
+        public int kind() {
+            return kinds[index];
+        }
+
+        public boolean isLextant(Lextant... candidates) {
+            return TokenBuffer.this.isLextant(index, candidates);
+        }
+
+        public Lextant lextant() {
+            return TokenBuffer.this.lextant(index);
+        }
+
+        public Token token() {
+            return TokenBuffer.this.token(index);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package lexicalAnalyzer.tests;
+
+public class FixtureDefinitions {
+    public static final String[] LEXER_INPUT_FILENAMES = { "src/applications/tests/fixtures/coinTest.bilby",
+            "input/bilby-0/err_lexical.bilby", "input/bilby-0/coins.bilby", };
+}
@@ -0,0 +1,79 @@
+package lexicalAnalyzer.tests;
+
+import java.util.Arrays;
+
+import inputHandler.SourceBuffer;
+import junit.framework.TestCase;
+import lexicalAnalyzer.IncrementalLexer;
+import lexicalAnalyzer.LineEdit;
+import lexicalAnalyzer.TokenBuffer;
+import tests.SourceText;
+
+public class TestIncrementalLexer extends TestCase {
+    private static final String[] LINES = { "main {", "  imm x := 3 + 4;", "  imm y := x * 2;", "", "  print x, y;",
+            "  print x > y $n;", "}", };
+
+    public void testChangedLine() {
+        String[] edited = LINES.clone();
+        edited[2] = "  imm yy := xx*2;";
+        assertRelexes(edited, LineEdit.changed(3, 1));
+    }
+
+    public void testInsertedAndDeletedLines() {
+        String[] edited = { "main {", "  imm x := 3 + 4;", "  imm z := 5;", "  print z;", "  imm y := x * 2;", "",
+                "}", };
+        assertRelexes(edited, new LineEdit(3, 0, 2), new LineEdit(5, 2, 0));
+    }
+
+    public void testEditsAtEnds() {
+        String[] edited = { "  main {", "  imm x := 3 + 4;", "  imm y := x * 2;", "", "  print x, y;",
+                "  print x > y $n;", "}", "  print 1;", };
+        assertRelexes(edited, LineEdit.changed(1, 1), new LineEdit(8, 0, 1));
+    }
+
+    public void testEditThatEndsTheStream() {
+        String[] edited = LINES.clone();
+        edited[1] = "  imm x : 3 + 4;";
+        assertRelexes(edited, LineEdit.changed(2, 1));
+        assertRelexes(LINES, edited, LineEdit.changed(2, 1));
+    }
+
+    public void testMismatchedEdits() {
+        try {
+            IncrementalLexer.relex(lex(LINES), source(LINES), Arrays.asList(new LineEdit(2, 1, 2)));
+            fail("edits that do not match the source were accepted");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    private void assertRelexes(String[] edited, LineEdit... edits) {
+        assertRelexes(edited, LINES, edits);
+    }
+
+    private void assertRelexes(String[] edited, String[] original, LineEdit... edits) {
+        TokenBuffer expected = lex(edited);
+        TokenBuffer actual = IncrementalLexer.relex(lex(original), source(edited), Arrays.asList(edits));
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.token(i).fullString(), actual.token(i).fullString());
+            assertEquals(expected.start(i), actual.start(i));
+        }
+    }
+
+    private static SourceBuffer source(String[] lines) {
+        return SourceText.source(text(lines));
+    }
+
+    private static TokenBuffer lex(String[] lines) {
+        return SourceText.lex(text(lines));
+    }
+
+    private static String text(String[] lines) {
+        StringBuilder text = new StringBuilder();
+        for (String line : lines) {
+            text.append(line).append('\n');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,31 @@
+package lexicalAnalyzer.tests;
+
+import junit.framework.TestCase;
+import lexicalAnalyzer.Keyword;
+import lexicalAnalyzer.Punctuator;
+
+public class TestLexemeMap extends TestCase {
+
+    public void testStringLookup() {
+        for (Keyword keyword : Keyword.values()) {
+            assertSame(keyword, Keyword.forLexeme(keyword.getLexeme()));
+        }
+        for (Punctuator punctuator : Punctuator.values()) {
+            assertSame(punctuator, Punctuator.forLexeme(punctuator.getLexeme()));
+        }
+        assertSame(Keyword.NULL_KEYWORD, Keyword.forLexeme("imma"));
+        assertSame(Punctuator.NULL_PUNCTUATOR, Punctuator.forLexeme(":"));
+    }
+
+    public void testRangeLookup() {
+        char[] text = "x print imm trues $n".toCharArray();
+
+        assertSame(Keyword.PRINT, Keyword.forLexeme(text, 2, 5));
+        assertSame(Keyword.IMM, Keyword.forLexeme(text, 8, 3));
+        assertSame(Keyword.TRUE, Keyword.forLexeme(text, 12, 4));
+        assertSame(Keyword.NULL_KEYWORD, Keyword.forLexeme(text, 12, 5));
+        assertSame(Keyword.NULL_KEYWORD, Keyword.forLexeme(text, 0, 0));
+        assertSame(Punctuator.PRINT_NEWLINE, Punctuator.forLexeme(text, 18, 2));
+        assertSame(Punctuator.PRINT_SEPARATOR, Punctuator.forLexeme(text, 18, 1));
+    }
+}
@@ -0,0 +1,94 @@
+package lexicalAnalyzer.tests;
+
+import static tests.SourceText.source;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import inputHandler.PushbackCharStream;
+import inputHandler.SourceBuffer;
+import junit.framework.TestCase;
+import lexicalAnalyzer.LexicalAnalyzer;
+import lexicalAnalyzer.ParallelLexer;
+import lexicalAnalyzer.TokenBuffer;
+import tests.LoggedMessages;
+
+public class TestLexicalErrorRecovery extends TestCase {
+    private static final ForkJoinPool pool = new ForkJoinPool(2);
+
+    public void testRunsAreCoalesced() {
+        List<String> errors = new ArrayList<String>();
+        TokenBuffer tokens = lexCollectingErrors("a #@! b % c", 100, errors);
+
+        assertEquals(4, tokens.size());
+        assertEquals("c", tokens.lexeme(2));
+        assertEquals(2, errors.size());
+        assertEquals("Lexical error: 3 invalid characters \"#@!\" (text line 1, characters 2-4)", errors.get(0));
+        assertEquals("Lexical error: invalid character (%, (text line 1, character 8))", errors.get(1));
+    }
+
+    public void testLongGarbageRun() {
+        StringBuilder text = new StringBuilder("a ");
+        for (int i = 0; i < 1000000; i++) {
+            text.append((char) (1 + i % 8));
+        }
+        text.append(" b");
+
+        List<String> errors = new ArrayList<String>();
+        TokenBuffer tokens = lexCollectingErrors(text.toString(), 100, errors);
+
+        assertEquals(3, tokens.size());
+        assertEquals("b", tokens.lexeme(1));
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).startsWith("Lexical error: 1000000 invalid characters \"\\u0001\\u0002"));
+    }
+
+    public void testErrorBudget() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            text.append("x # y\n");
+        }
+        String program = text.toString();
+
+        List<String> errors = new ArrayList<String>();
+        TokenBuffer tokens = lexCollectingErrors(program, 10, errors);
+
+        assertEquals(101, tokens.size());
+        assertEquals(11, errors.size());
+        assertEquals("Lexical error: more than 10 lexical errors; the rest are not reported", errors.get(10));
+
+        final SourceBuffer source = source(program);
+        List<String> parallelErrors = collectingErrors(new Runnable() {
+            public void run() {
+                ParallelLexer lexer = new ParallelLexer(source, 5, pool);
+                lexer.setErrorBudget(10);
+                lexer.lex();
+            }
+        });
+        assertEquals(errors, parallelErrors);
+    }
+
+    private TokenBuffer lexCollectingErrors(String text, final int budget, List<String> errors) {
+        final SourceBuffer source = source(text);
+        final TokenBuffer[] result = new TokenBuffer[1];
+        errors.addAll(collectingErrors(new Runnable() {
+            public void run() {
+                LexicalAnalyzer analyzer = new LexicalAnalyzer(PushbackCharStream.make(source, 0));
+                analyzer.setErrorBudget(budget);
+                result[0] = TokenBuffer.lex(analyzer);
+            }
+        }));
+        return result[0];
+    }
+
+    private List<String> collectingErrors(Runnable lexing) {
+        LoggedMessages logged = LoggedMessages.listen("compiler.lexicalAnalyzer");
+        try {
+            lexing.run();
+        } finally {
+            logged.stop();
+        }
+        return logged.messages();
+    }
+}
@@ -0,0 +1,45 @@
+package lexicalAnalyzer.tests;
+
+import junit.framework.TestCase;
+import lexicalAnalyzer.Keyword;
+import lexicalAnalyzer.LextantDFA;
+import lexicalAnalyzer.Punctuator;
+
+public class TestLextantDFA extends TestCase {
+
+    public void testEveryLexemeIsRecognized() {
+        LextantDFA<Punctuator> punctuators = new LextantDFA<Punctuator>(Punctuator.values(),
+                Punctuator.NULL_PUNCTUATOR);
+        for (Punctuator punctuator : Punctuator.values()) {
+            if (punctuator != Punctuator.NULL_PUNCTUATOR) {
+                assertSame(punctuator, punctuators.match(punctuator.getLexeme()));
+            }
+        }
+        LextantDFA<Keyword> keywords = new LextantDFA<Keyword>(Keyword.values(), Keyword.NULL_KEYWORD);
+        for (Keyword keyword : Keyword.values()) {
+            if (keyword != Keyword.NULL_KEYWORD) {
+                assertSame(keyword, keywords.match(keyword.getLexeme()));
+            }
+        }
+    }
+
+    public void testNonLexemes() {
+        LextantDFA<Keyword> keywords = new LextantDFA<Keyword>(Keyword.values(), Keyword.NULL_KEYWORD);
+
+        assertSame(Keyword.NULL_KEYWORD, keywords.match(""));
+        assertSame(Keyword.NULL_KEYWORD, keywords.match("pri"));
+        assertSame(Keyword.NULL_KEYWORD, keywords.match("printer"));
+        assertSame(Keyword.NULL_KEYWORD, keywords.match("\u00e9"));
+    }
+
+    public void testPrefixStatesAreNotAccepting() {
+        LextantDFA<Punctuator> punctuators = new LextantDFA<Punctuator>(Punctuator.values(),
+                Punctuator.NULL_PUNCTUATOR);
+
+        int colon = punctuators.transition(punctuators.startState(), ':');
+        assertFalse(punctuators.isAccepting(colon));
+        assertSame(Punctuator.ASSIGN, punctuators.lextantFor(punctuators.transition(colon, '=')));
+        assertEquals(LextantDFA.DEAD_STATE, punctuators.transition(colon, ':'));
+        assertEquals(2, punctuators.maximumLexemeLength());
+    }
+}
@@ -0,0 +1,73 @@
+package lexicalAnalyzer.tests;
+
+import static lexicalAnalyzer.tests.FixtureDefinitions.*;
+import static tests.SourceText.source;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import inputHandler.InputHandler;
+import inputHandler.PushbackCharStream;
+import inputHandler.SourceBuffer;
+import junit.framework.TestCase;
+import lexicalAnalyzer.LexicalAnalyzer;
+import lexicalAnalyzer.ParallelLexer;
+import lexicalAnalyzer.TokenBuffer;
+import tests.LoggedMessages;
+
+public class TestParallelLexer extends TestCase {
+    private static final int[] CHUNK_SIZES = { 1, 5, 16, 100, ParallelLexer.DEFAULT_CHUNK_SIZE };
+    private static final ForkJoinPool pool = new ForkJoinPool(4);
+
+    public void testFixturesMatchSequentialLexing() {
+        for (String filename : LEXER_INPUT_FILENAMES) {
+            SourceBuffer source = InputHandler.fromFilename(filename, InputHandler.Mode.MAPPED).sourceBuffer();
+            assertMatchesSequentialLexing(source);
+        }
+    }
+
+    public void testErrorsAndEarlyEnd() {
+        assertMatchesSequentialLexing(source("main {\n  imm x := 1 ? 2;#\n\n?? print x $n;\n}\n"));
+        assertMatchesSequentialLexing(source("main {\n  print 1;\n  :\n  print 2; ?\n}\n"));
+        assertMatchesSequentialLexing(source(""));
+    }
+
+    private void assertMatchesSequentialLexing(final SourceBuffer source) {
+        List<String> expectedErrors = new ArrayList<String>();
+        TokenBuffer expected = collectingErrors(expectedErrors, new Lexing() {
+            public TokenBuffer lex() {
+                return TokenBuffer.lex(new LexicalAnalyzer(PushbackCharStream.make(source, 0)));
+            }
+        });
+
+        for (final int chunkSize : CHUNK_SIZES) {
+            List<String> actualErrors = new ArrayList<String>();
+            TokenBuffer actual = collectingErrors(actualErrors, new Lexing() {
+                public TokenBuffer lex() {
+                    return new ParallelLexer(source, chunkSize, pool).lex();
+                }
+            });
+
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.token(i).fullString(), actual.token(i).fullString());
+            }
+            assertEquals(expectedErrors, actualErrors);
+        }
+    }
+
+    private interface Lexing {
+        TokenBuffer lex();
+    }
+
+    private TokenBuffer collectingErrors(List<String> messages, Lexing lexing) {
+        LoggedMessages logged = LoggedMessages.listen("compiler.lexicalAnalyzer");
+        try {
+            return lexing.lex();
+        } finally {
+            logged.stop();
+            messages.addAll(logged.messages());
+        }
+    }
+}
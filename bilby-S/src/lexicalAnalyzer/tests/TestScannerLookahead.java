@@ -0,0 +1,113 @@
+package lexicalAnalyzer.tests;
+
+import static lexicalAnalyzer.tests.FixtureDefinitions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import lexicalAnalyzer.LexicalAnalyzer;
+import lexicalAnalyzer.Scanner;
+import lexicalAnalyzer.ScannerImp;
+import lexicalAnalyzer.TokenBuffer;
+import tokens.NullToken;
+import tokens.Token;
+
+public class TestScannerLookahead extends TestCase {
+
+    public void testPeekMatchesNext() {
+        for (String filename : LEXER_INPUT_FILENAMES) {
+            List<String> expected = fullStrings(LexicalAnalyzer.make(filename));
+            assertPeeksMatch(expected, LexicalAnalyzer.make(filename));
+            assertPeeksMatch(expected, TokenBuffer.make(filename));
+        }
+    }
+
+    public void testMarkAndRewind() {
+        for (String filename : LEXER_INPUT_FILENAMES) {
+            assertRewinds(LexicalAnalyzer.make(filename));
+            assertRewinds(TokenBuffer.make(filename));
+        }
+    }
+
+    public void testPeekingAgainMakesNoToken() {
+        TokenBuffer buffer = TokenBuffer.make(LEXER_INPUT_FILENAMES[0]);
+        assertPeeksReuseTokens(buffer);
+        assertPeeksReuseTokens(buffer.scanner(0, buffer.size()));
+    }
+
+    public void testBounds() {
+        Scanner scanner = LexicalAnalyzer.make(LEXER_INPUT_FILENAMES[0]);
+        try {
+            scanner.peek(ScannerImp.LOOKAHEAD_CAPACITY);
+            fail("lookahead past capacity");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            scanner.rewind();
+            fail("rewind without mark");
+        } catch (IllegalStateException e) {
+        }
+
+        scanner.mark();
+        for (int i = 0; i < ScannerImp.LOOKAHEAD_CAPACITY; i++) {
+            scanner.next();
+        }
+        try {
+            scanner.rewind();
+            fail("rewind to an overwritten mark");
+        } catch (IllegalStateException e) {
+        }
+    }
+
+    private List<String> fullStrings(Scanner scanner) {
+        List<String> result = new ArrayList<String>();
+        while (scanner.hasNext()) {
+            result.add(scanner.next().fullString());
+        }
+        result.add(scanner.next().fullString());
+        return result;
+    }
+
+    private void assertPeeksMatch(List<String> expected, Scanner scanner) {
+        int lookahead = Math.min(scanner.lookaheadCapacity(), 5);
+        for (int i = 0; i < expected.size(); i++) {
+            for (int k = 0; k < lookahead; k++) {
+                Token peeked = scanner.peek(k);
+                if (i + k < expected.size()) {
+                    assertEquals(expected.get(i + k), peeked.fullString());
+                } else {
+                    assertTrue(peeked instanceof NullToken);
+                }
+            }
+            assertEquals(expected.get(i), scanner.next().fullString());
+        }
+    }
+
+    private void assertPeeksReuseTokens(Scanner scanner) {
+        while (scanner.hasNext()) {
+            Token ahead = scanner.peek(2);
+            Token next = scanner.peek(0);
+            assertSame(next, scanner.peek(0));
+            assertSame(next, scanner.next());
+            assertSame(ahead, scanner.peek(1));
+        }
+        assertSame(scanner.peek(1), scanner.peek(1));
+    }
+
+    private void assertRewinds(Scanner scanner) {
+        while (scanner.hasNext()) {
+            scanner.mark();
+            List<String> ahead = new ArrayList<String>();
+            for (int i = 0; i < 3; i++) {
+                ahead.add(scanner.next().fullString());
+            }
+            scanner.rewind();
+            for (int i = 0; i < 3; i++) {
+                assertEquals(ahead.get(i), scanner.next().fullString());
+            }
+            scanner.rewind();
+            scanner.next();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package lexicalAnalyzer.tests;
+
+import static tests.SourceText.lex;
+
+import junit.framework.TestCase;
+import lexicalAnalyzer.SymbolPool;
+import lexicalAnalyzer.TokenBuffer;
+import tokens.IdentifierToken;
+
+public class TestSymbolPool extends TestCase {
+
+    public void testDenseSymbols() {
+        SymbolPool pool = new SymbolPool();
+        char[] chars = "nickels pennies nickels".toCharArray();
+
+        assertEquals(0, pool.intern(chars, 0, 7));
+        assertEquals(1, pool.intern(chars, 8, 7));
+        assertEquals(0, pool.intern(chars, 16, 7));
+        assertEquals(1, pool.intern("pennies"));
+        assertEquals(2, pool.size());
+        assertSame(pool.lexeme(0), pool.lexeme(pool.intern(chars, 16, 7)));
+        assertEquals(SymbolPool.NO_SYMBOL, pool.symbolOf("dimes"));
+        assertEquals(1, pool.symbolOf("pennies"));
+    }
+
+    public void testManySymbols() {
+        SymbolPool pool = new SymbolPool();
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, pool.intern("v" + i));
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, pool.symbolOf("v" + i));
+            assertEquals("v" + i, pool.lexeme(i));
+        }
+    }
+
+    public void testTokensCarrySymbols() {
+        TokenBuffer tokens = lex("main { imm a := b; imm b := a + ab; }");
+        SymbolPool pool = tokens.symbolPool();
+
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.kind(i) == TokenBuffer.IDENTIFIER) {
+                IdentifierToken token = (IdentifierToken) tokens.token(i);
+                assertEquals(tokens.symbol(i), token.getSymbol());
+                assertSame(pool.lexeme(token.getSymbol()), token.getLexeme());
+                assertEquals(tokens.lexeme(i), token.getLexeme());
+            }
+        }
+        assertEquals(3, pool.size());
+    }
+}
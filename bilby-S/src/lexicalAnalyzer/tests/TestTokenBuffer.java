@@ -0,0 +1,67 @@
+package lexicalAnalyzer.tests;
+
+import static lexicalAnalyzer.tests.FixtureDefinitions.*;
+import static tests.SourceText.lex;
+
+import junit.framework.TestCase;
+import lexicalAnalyzer.Keyword;
+import lexicalAnalyzer.LexicalAnalyzer;
+import lexicalAnalyzer.Punctuator;
+import lexicalAnalyzer.TokenBuffer;
+import tokens.LextantToken;
+import tokens.Token;
+
+public class TestTokenBuffer extends TestCase {
+
+    public void testMatchesLexicalAnalyzer() {
+        for (String filename : LEXER_INPUT_FILENAMES) {
+            LexicalAnalyzer analyzer = LexicalAnalyzer.make(filename);
+            TokenBuffer buffer = TokenBuffer.make(filename);
+
+            while (analyzer.hasNext()) {
+                assertTrue(buffer.hasNext());
+                assertEquals(analyzer.next().fullString(), buffer.next().fullString());
+            }
+            assertFalse(buffer.hasNext());
+            assertEquals(analyzer.next().fullString(), buffer.next().fullString());
+            assertEquals(analyzer.next().fullString(), buffer.next().fullString());
+        }
+    }
+
+    public void testCursor() {
+        TokenBuffer buffer = TokenBuffer.make(LEXER_INPUT_FILENAMES[0]);
+        TokenBuffer.Cursor cursor = buffer.cursor();
+
+        int count = 0;
+        for (; !cursor.atEnd(); cursor.advance()) {
+            Token token = cursor.token();
+            assertEquals(buffer.lexeme(cursor.index()), token.getLexeme());
+            assertEquals(cursor.isLextant(Punctuator.TERMINATOR), token.isLextant(Punctuator.TERMINATOR));
+            count++;
+        }
+        assertEquals(buffer.size() - 1, count);
+        assertEquals(TokenBuffer.NULL_TOKEN, cursor.kind());
+    }
+
+    public void testNumberValues() {
+        TokenBuffer buffer = lex("0 2147483647 2147483648 00042");
+
+        assertEquals(0, buffer.value(0));
+        assertEquals(Integer.MAX_VALUE, buffer.value(1));
+        assertEquals(0, buffer.value(2));
+        assertEquals("2147483648", buffer.lexeme(2));
+        assertEquals(42, buffer.value(3));
+        assertEquals(TokenBuffer.NUMBER, buffer.kind(3));
+    }
+
+    public void testLextantTokens() {
+        TokenBuffer buffer = lex("main {\n  print 1 $n;\n}");
+
+        LextantToken print = (LextantToken) buffer.token(2);
+        assertSame(Keyword.PRINT, print.getLextant());
+        assertSame(Keyword.PRINT.getLexeme(), print.getLexeme());
+        assertEquals("(text line 2, character 2)", print.getLocation().toString());
+        assertEquals("(PRINT, (text line 2, character 2), print)", print.fullString());
+        assertSame(Punctuator.PRINT_NEWLINE.getLexeme(), buffer.token(4).getLexeme());
+    }
+}
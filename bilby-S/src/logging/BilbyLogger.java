@@ -31,6 +31,10 @@ public class BilbyLogger {
         return numMessages != 0;
     }
 
+    public static int messageCount() {
+        return numMessages;
+    }
+
     public static void setMaximumErrorMessages(int numMessages) {
         maxMessagesBeforeQuit = numMessages;
     }
@@ -0,0 +1,408 @@
+package parseTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import lexicalAnalyzer.TokenBuffer;
+import parseTree.nodeTypes.BooleanConstantNode;
+import parseTree.nodeTypes.DeclarationNode;
+import parseTree.nodeTypes.ErrorNode;
+import parseTree.nodeTypes.IdentifierNode;
+import parseTree.nodeTypes.IntegerConstantNode;
+import parseTree.nodeTypes.MainBlockNode;
+import parseTree.nodeTypes.NewlineNode;
+import parseTree.nodeTypes.OperatorNode;
+import parseTree.nodeTypes.PrintStatementNode;
+import parseTree.nodeTypes.ProgramNode;
+import parseTree.nodeTypes.SpaceNode;
+import semanticAnalyzer.types.PrimitiveType;
+import semanticAnalyzer.types.Type;
+import symbolTable.Binding;
+import symbolTable.Scope;
+import tokens.Token;
+
+/**
+ * A parse tree kept in arrays, one entry per node in each, rather than as one
+ * object per node: the node's kind (its class), first child, next sibling,
+ * parent, token index (in the TokenBuffer the tree was parsed from) and type
+ * id, and its attribute (the scope of a node with a scope, or the binding of
+ * an identifier). Nodes are numbered in the order they are added; NO_NODE is
+ * none.
+ * <p>
+ * The rest of the compiler uses the tree through views: node(i) makes a
+ * ParseNode of node i's class, with no children list of its own and no Token
+ * until one is asked for, whose children, parent, type, scope and binding are
+ * read from and written to the arrays. Views are made when asked for and not
+ * kept; two views of the same node are equal (see ParseNode.equals).
+ * <p>
+ * The children of each node are also indexed, the first time one is asked for
+ * by number, so that child(node, i) and nChildren(node) need not walk the
+ * siblings.
+ * <p>
+ * A tree is built by opening nodes, each the last child of the node open
+ * before it, and closing them (see parser.ArenaTreeBuilder).
+ */
+public class ArenaTree {
+    public static final int NO_NODE = -1;
+
+    // the node classes.
+    public enum Kind {
+        PROGRAM, MAIN_BLOCK, DECLARATION, PRINT_STATEMENT, OPERATOR, INTEGER_CONSTANT, BOOLEAN_CONSTANT, IDENTIFIER,
+        NEWLINE, SPACE, ERROR;
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+    private static final int INITIAL_CAPACITY = 64;
+
+    private TokenBuffer tokens;
+    private int size = 0;
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private int[] firstChildren = new int[INITIAL_CAPACITY];
+    private int[] nextSiblings = new int[INITIAL_CAPACITY];
+    private int[] parents = new int[INITIAL_CAPACITY];
+    private int[] tokenIndices = new int[INITIAL_CAPACITY];
+    private byte[] typeIds = new byte[INITIAL_CAPACITY];
+    private Object[] attributes = null; // made when the first is set
+    private List<Type> types = new ArrayList<Type>(List.of(PrimitiveType.NO_TYPE)); // by type id
+    private int root = NO_NODE;
+
+    // the child index: the children of node are childList[childStarts[node]]
+    // up to childList[childStarts[node + 1]]. Made when first needed; null
+    // while the tree is changing.
+    private int[] childStarts = null;
+    private int[] childList = null;
+
+    // while building: the open nodes, with the last child of each and the
+    // child before that.
+    private int depth = 0;
+    private int[] openNodes = new int[INITIAL_CAPACITY];
+    private int[] lastChildren = new int[INITIAL_CAPACITY];
+    private int[] previousChildren = new int[INITIAL_CAPACITY];
+
+    public ArenaTree(TokenBuffer tokens) {
+        this.tokens = tokens;
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // building
+
+    /**
+     * Adds a node as the last child of the node open last (or as the root) and
+     * opens it.
+     *
+     * @return the new node.
+     */
+    public int open(Kind kind, int tokenIndex) {
+        int node = add(kind, tokenIndex);
+        dropChildIndex();
+        if (depth == 0) {
+            root = node;
+        } else {
+            int parent = openNodes[depth - 1];
+            parents[node] = parent;
+            int last = lastChildren[depth - 1];
+            if (last == NO_NODE) {
+                firstChildren[parent] = node;
+            } else {
+                nextSiblings[last] = node;
+            }
+            previousChildren[depth - 1] = last;
+            lastChildren[depth - 1] = node;
+        }
+        push(node, NO_NODE);
+        return node;
+    }
+
+    /**
+     * Adds a node in place of the last child of the node open last, with that
+     * child as its first child, and opens it. This is how a binary operation
+     * takes in the left operand parsed before its operator.
+     *
+     * @return the new node.
+     */
+    public int openAroundLastChild(Kind kind, int tokenIndex) {
+        int node = add(kind, tokenIndex);
+        dropChildIndex();
+        int parent = openNodes[depth - 1];
+        int operand = lastChildren[depth - 1];
+        int previous = previousChildren[depth - 1];
+        if (previous == NO_NODE) {
+            firstChildren[parent] = node;
+        } else {
+            nextSiblings[previous] = node;
+        }
+        parents[node] = parent;
+        lastChildren[depth - 1] = node;
+
+        firstChildren[node] = operand;
+        parents[operand] = node;
+        push(node, operand);
+        return node;
+    }
+
+    /**
+     * Closes the node open last. Once the root is closed the arrays are cut to
+     * the size of the tree.
+     *
+     * @return the node closed.
+     */
+    public int close() {
+        depth--;
+        int node = openNodes[depth];
+        if (depth == 0) {
+            trim();
+        }
+        return node;
+    }
+
+    /**
+     * Makes node, detached from its parent, the root of the tree.
+     */
+    public void makeRoot(int node) {
+        parents[node] = NO_NODE;
+        nextSiblings[node] = NO_NODE;
+        root = node;
+        dropChildIndex();
+    }
+
+    private int add(Kind kind, int tokenIndex) {
+        if (size == kinds.length) {
+            grow(2 * size);
+        }
+        int node = size++;
+        kinds[node] = (byte) kind.ordinal();
+        firstChildren[node] = NO_NODE;
+        nextSiblings[node] = NO_NODE;
+        parents[node] = NO_NODE;
+        tokenIndices[node] = tokenIndex;
+        return node;
+    }
+
+    private void push(int node, int lastChild) {
+        if (depth == openNodes.length) {
+            openNodes = Arrays.copyOf(openNodes, 2 * depth);
+            lastChildren = Arrays.copyOf(lastChildren, 2 * depth);
+            previousChildren = Arrays.copyOf(previousChildren, 2 * depth);
+        }
+        openNodes[depth] = node;
+        lastChildren[depth] = lastChild;
+        previousChildren[depth] = NO_NODE;
+        depth++;
+    }
+
+    private void trim() {
+        grow(size);
+        openNodes = new int[INITIAL_CAPACITY];
+        lastChildren = new int[INITIAL_CAPACITY];
+        previousChildren = new int[INITIAL_CAPACITY];
+    }
+
+    private void grow(int capacity) {
+        kinds = Arrays.copyOf(kinds, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        tokenIndices = Arrays.copyOf(tokenIndices, capacity);
+        typeIds = Arrays.copyOf(typeIds, capacity);
+        if (attributes != null) {
+            attributes = Arrays.copyOf(attributes, capacity);
+        }
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // structure
+
+    public int size() {
+        return size;
+    }
+
+    public int root() {
+        return root;
+    }
+
+    public Kind kind(int node) {
+        return KINDS[kinds[node]];
+    }
+
+    public int tokenIndex(int node) {
+        return tokenIndices[node];
+    }
+
+    /**
+     * @return a new Token for the token of node.
+     */
+    public Token token(int node) {
+        return tokens.token(tokenIndices[node]);
+    }
+
+    public int parent(int node) {
+        return parents[node];
+    }
+
+    public int firstChild(int node) {
+        return firstChildren[node];
+    }
+
+    public int nextSibling(int node) {
+        return nextSiblings[node];
+    }
+
+    public int nChildren(int node) {
+        makeChildIndex();
+        return childStarts[node + 1] - childStarts[node];
+    }
+
+    public int child(int node, int i) {
+        makeChildIndex();
+        int start = childStarts[node];
+        if (i < 0 || i >= childStarts[node + 1] - start) {
+            throw new IndexOutOfBoundsException("node " + node + " has no child " + i);
+        }
+        return childList[start + i];
+    }
+
+    private void makeChildIndex() {
+        if (childStarts != null) {
+            return;
+        }
+        int[] starts = new int[size + 1];
+        int[] list = new int[size];
+        int count = 0;
+        for (int node = 0; node < size; node++) {
+            starts[node] = count;
+            for (int child = firstChildren[node]; child != NO_NODE; child = nextSiblings[child]) {
+                list[count++] = child;
+            }
+        }
+        starts[size] = count;
+        childList = list;
+        childStarts = starts;
+    }
+
+    private void dropChildIndex() {
+        childStarts = null;
+        childList = null;
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // attributes
+
+    public Type type(int node) {
+        return types.get(typeIds[node]);
+    }
+
+    public void setType(int node, Type type) {
+        int id = types.indexOf(type);
+        if (id < 0) {
+            id = types.size();
+            types.add(type);
+        }
+        typeIds[node] = (byte) id;
+    }
+
+    // a node has a scope or a binding (if it is an identifier), never both, so
+    // they share the attribute array.
+
+    public Scope scope(int node) {
+        Object attribute = attribute(node);
+        return attribute instanceof Scope ? (Scope) attribute : null;
+    }
+
+    public void setScope(int node, Scope scope) {
+        setAttribute(node, scope);
+    }
+
+    public Binding binding(int node) {
+        Object attribute = attribute(node);
+        return attribute instanceof Binding ? (Binding) attribute : null;
+    }
+
+    public void setBinding(int node, Binding binding) {
+        setAttribute(node, binding);
+    }
+
+    private Object attribute(int node) {
+        return attributes == null ? null : attributes[node];
+    }
+
+    private void setAttribute(int node, Object attribute) {
+        if (attributes == null) {
+            attributes = new Object[kinds.length];
+        }
+        attributes[node] = attribute;
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // views
+
+    public ParseNode rootNode() {
+        return node(root);
+    }
+
+    /**
+     * @return a view of node, or null if node is NO_NODE.
+     */
+    public ParseNode node(int node) {
+        if (node == NO_NODE) {
+            return null;
+        }
+        return makeView(kind(node), node);
+    }
+
+    List<ParseNode> children(int node) {
+        List<ParseNode> result = new ArrayList<ParseNode>();
+        for (int child = firstChildren[node]; child != NO_NODE; child = nextSiblings[child]) {
+            result.add(node(child));
+        }
+        return result;
+    }
+
+    Iterator<ParseNode> childIterator(final int node) {
+        return new Iterator<ParseNode>() {
+            private int next = firstChildren[node];
+
+            public boolean hasNext() {
+                return next != NO_NODE;
+            }
+
+            public ParseNode next() {
+                if (next == NO_NODE) {
+                    throw new NoSuchElementException();
+                }
+                int child = next;
+                next = nextSiblings[child];
+                return node(child);
+            }
+        };
+    }
+
+    private ParseNode makeView(Kind kind, int node) {
+        switch (kind) {
+        case PROGRAM:
+            return new ProgramNode(this, node);
+        case MAIN_BLOCK:
+            return new MainBlockNode(this, node);
+        case DECLARATION:
+            return new DeclarationNode(this, node);
+        case PRINT_STATEMENT:
+            return new PrintStatementNode(this, node);
+        case OPERATOR:
+            return new OperatorNode(this, node);
+        case INTEGER_CONSTANT:
+            return new IntegerConstantNode(this, node);
+        case BOOLEAN_CONSTANT:
+            return new BooleanConstantNode(this, node);
+        case IDENTIFIER:
+            return new IdentifierNode(this, node);
+        case NEWLINE:
+            return new NewlineNode(this, node);
+        case SPACE:
+            return new SpaceNode(this, node);
+        default:
+            return new ErrorNode(this, node);
+        }
+    }
+}
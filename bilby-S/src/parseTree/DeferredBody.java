@@ -0,0 +1,12 @@
+package parseTree;
+
+/**
+ * The unparsed body of a block, recorded by a parser that skims block bodies
+ * rather than parsing them (see Parser.skim).
+ */
+public interface DeferredBody {
+    /**
+     * Parses the body, appending its statements to block.
+     */
+    public void parseInto(ParseNode block);
+}
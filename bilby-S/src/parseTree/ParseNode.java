@@ -1,6 +1,7 @@
 package parseTree;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import inputHandler.Locator;
@@ -18,9 +19,11 @@ public class ParseNode implements Locator {
     List<ParseNode> children;
     ParseNode parent;
 
-    protected Token token;
+    protected Token token; // for an arena view, null until asked for
     Type type; // used for expressions
     private Scope scope; // the scope created by this node, if any.
+    private ArenaTree arena; // for a view of a node of an ArenaTree, the tree
+    private int arenaIndex; // and the index of the node in it
 
     public ParseNode(Token token) {
         this.token = token;
@@ -33,12 +36,35 @@ public class ParseNode implements Locator {
     // "detached" copy constructor. Copies all info except tree info (parent and
     // children)
     public ParseNode(ParseNode node) {
-        this.token = node.token;
-        this.type = node.type;
-        this.scope = node.scope;
+        this.token = node.getToken();
+        this.type = node.getType();
+        this.scope = node.getScope();
+    }
+
+    // a view of node index of arena (see ArenaTree.node()). Its tree info and
+    // attributes are those of the arena, and its token is read from the arena
+    // when first asked for.
+    protected ParseNode(ArenaTree arena, int index) {
+        this.arena = arena;
+        this.arenaIndex = index;
+    }
+
+    protected boolean isArenaView() {
+        return arena != null;
+    }
+
+    protected ArenaTree arena() {
+        return arena;
+    }
+
+    protected int arenaIndex() {
+        return arenaIndex;
     }
 
     public Token getToken() {
+        if (token == null && arena != null) {
+            token = arena.token(arenaIndex);
+        }
         return token;
     }
 
@@ -46,30 +72,44 @@ public class ParseNode implements Locator {
     // attributes
 
     public void setType(Type type) {
+        if (arena != null) {
+            arena.setType(arenaIndex, type);
+            return;
+        }
         this.type = type;
     }
 
     public Type getType() {
+        if (arena != null) {
+            return arena.type(arenaIndex);
+        }
         return type;
     }
 
     @Override
     public TextLocation getLocation() {
-        return token.getLocation();
+        return getToken().getLocation();
     }
 
     ////////////////////////////////////////////////////////////////////////////////////
     // scopes and bindings
     public Scope getScope() {
+        if (arena != null) {
+            return arena.scope(arenaIndex);
+        }
         return scope;
     }
 
     public void setScope(Scope scope) {
+        if (arena != null) {
+            arena.setScope(arenaIndex, scope);
+            return;
+        }
         this.scope = scope;
     }
 
     public boolean hasScope() {
-        return scope != null;
+        return getScope() != null;
     }
 
     public Scope getLocalScope() {
@@ -81,20 +121,20 @@ public class ParseNode implements Locator {
         return Scope.nullInstance();
     }
 
-    public boolean containsBindingOf(String identifier) {
+    public boolean containsBindingOf(int symbol) {
         if (!hasScope()) {
             return false;
         }
-        SymbolTable symbolTable = scope.getSymbolTable();
-        return symbolTable.containsKey(identifier);
+        SymbolTable symbolTable = getScope().getSymbolTable();
+        return symbolTable.containsKey(symbol);
     }
 
-    public Binding bindingOf(String identifier) {
+    public Binding bindingOf(int symbol) {
         if (!hasScope()) {
             return Binding.nullInstance();
         }
-        SymbolTable symbolTable = scope.getSymbolTable();
-        return symbolTable.lookup(identifier);
+        SymbolTable symbolTable = getScope().getSymbolTable();
+        return symbolTable.lookup(symbol);
     }
 
     ////////////////////////////////////////////////////////////////////////////////////
@@ -103,8 +143,12 @@ public class ParseNode implements Locator {
     // note: there is no provision as of yet for removal of children. Be sure to
     //////////////////////////////////////////////////////////////////////////////////// update
     // the removed child's parent pointer if you do implement it.
+    // The children of an arena view cannot be changed.
 
     public ParseNode getParent() {
+        if (arena != null) {
+            return arena.node(arena.parent(arenaIndex));
+        }
         return parent;
     }
 
@@ -113,10 +157,16 @@ public class ParseNode implements Locator {
     }
 
     public List<ParseNode> getChildren() {
+        if (arena != null) {
+            return arena.children(arenaIndex);
+        }
         return children;
     }
 
     public ParseNode child(int i) {
+        if (arena != null) {
+            return arena.node(arena.child(arenaIndex, i));
+        }
         return children.get(i);
     }
 
@@ -126,12 +176,14 @@ public class ParseNode implements Locator {
 
     // adds a new child to this node (as first child) and sets its parent link.
     public void insertChild(ParseNode child) {
+        checkNotArenaView();
         children.add(0, child);
         child.setParent(this);
     }
 
     // adds a new child to this node (as last child) and sets its parent link.
     public void appendChild(ParseNode child) {
+        checkNotArenaView();
         children.add(child);
         child.setParent(this);
     }
@@ -140,6 +192,7 @@ public class ParseNode implements Locator {
     // zapped if you do.
     // (throws a ConcurrentModificationException.)
     public void replaceChild(ParseNode oldChild, ParseNode newChild) {
+        checkNotArenaView();
         for (int index = 0; index < nChildren(); index++) {
             if (child(index) == oldChild) {
                 children.remove(index);
@@ -150,10 +203,28 @@ public class ParseNode implements Locator {
         }
     }
 
+    // replaces the last child with newChild, in constant time.
+    // @return the child replaced.
+    public ParseNode replaceLastChild(ParseNode newChild) {
+        checkNotArenaView();
+        ParseNode oldChild = children.set(children.size() - 1, newChild);
+        newChild.setParent(this);
+        return oldChild;
+    }
+
     public int nChildren() {
+        if (arena != null) {
+            return arena.nChildren(arenaIndex);
+        }
         return children.size();
     }
 
+    private void checkNotArenaView() {
+        if (arena != null) {
+            throw new UnsupportedOperationException("the children of an arena tree node cannot be changed");
+        }
+    }
+
     ////////////////////////////////////////////////////////////////////////////////////
     // Iterable<ParseNode> pathToRoot
 
@@ -168,18 +239,63 @@ public class ParseNode implements Locator {
         return ParseTreePrinter.print(this);
     }
 
+    ////////////////////////////////////////////////////////////////////////////////////
+    // equality: views of the same arena node are equal; any other node is equal
+    // only to itself.
+
+    @Override
+    public boolean equals(Object other) {
+        if (arena == null || !(other instanceof ParseNode)) {
+            return this == other;
+        }
+        ParseNode node = (ParseNode) other;
+        return arena == node.arena && arenaIndex == node.arenaIndex;
+    }
+
+    @Override
+    public int hashCode() {
+        if (arena == null) {
+            return super.hashCode();
+        }
+        return 31 * System.identityHashCode(arena) + arenaIndex;
+    }
+
     ////////////////////////////////////////////////////////////////////////////////////
     // for visitors
+    // A node is visited in two steps around its children: acceptEnter() makes
+    // the visits before them and tells whether they are visited at all (a leaf
+    // makes its one visit there), and acceptLeave() makes the visits after.
+    // accept() visits the subtree by recursion; Traversal.ITERATIVE makes the
+    // same visits with an explicit stack.
 
     public void accept(ParseNodeVisitor visitor) {
+        if (acceptEnter(visitor)) {
+            visitChildren(visitor);
+            acceptLeave(visitor);
+        }
+    }
+
+    protected boolean acceptEnter(ParseNodeVisitor visitor) {
         visitor.visitEnter(this);
-        visitChildren(visitor);
+        return true;
+    }
+
+    protected void acceptLeave(ParseNodeVisitor visitor) {
         visitor.visitLeave(this);
     }
 
     protected void visitChildren(ParseNodeVisitor visitor) {
-        for (ParseNode child : children) {
-            child.accept(visitor);
+        Iterator<ParseNode> children = childIterator();
+        while (children.hasNext()) {
+            children.next().accept(visitor);
+        }
+    }
+
+    // the children of an arena view are made as the iteration reaches them.
+    Iterator<ParseNode> childIterator() {
+        if (arena != null) {
+            return arena.childIterator(arenaIndex);
         }
+        return children.iterator();
     }
 }
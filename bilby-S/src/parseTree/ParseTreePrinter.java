@@ -80,7 +80,7 @@ public class ParseTreePrinter {
     private void appendIndentedSubtree(ParseNode node, int indentAmount) {
         appendIndentedLineFor(node, indentAmount);
 
-        for (ParseNode child : node.children) {
+        for (ParseNode child : node.getChildren()) {
             appendIndentedSubtree(child, indentAmount + INDENT_INCREMENT);
         }
     }
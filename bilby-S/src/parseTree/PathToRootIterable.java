@@ -15,20 +15,21 @@ public class PathToRootIterable implements Iterable<ParseNode> {
     }
 
     class PathToRootIterator implements Iterator<ParseNode> {
-        ParseNode current;
+        ParseNode next; // the parent is asked for once per node, as it may be made on request
 
         public PathToRootIterator(ParseNode node) {
-            current = node;
+            next = node.getParent();
         }
 
         @Override
         public boolean hasNext() {
-            return current.parent != null;
+            return next != null;
         }
 
         @Override
         public ParseNode next() {
-            current = current.parent;
+            ParseNode current = next;
+            next = current.getParent();
             return current;
         }
 
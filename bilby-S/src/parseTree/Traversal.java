@@ -0,0 +1,47 @@
+package parseTree;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+/**
+ * Ways of taking a ParseNodeVisitor through a tree. Both make the same visits
+ * in the same order, that of ParseNode.accept().
+ */
+public enum Traversal {
+    // ParseNode.accept(): the Java stack grows with the depth of the tree.
+    RECURSIVE {
+        public void traverse(ParseNode root, ParseNodeVisitor visitor) {
+            root.accept(visitor);
+        }
+    },
+    // an explicit stack of the nodes being visited, each with its children
+    // still to visit, so any depth fits in the heap.
+    ITERATIVE {
+        public void traverse(ParseNode root, ParseNodeVisitor visitor) {
+            if (!root.acceptEnter(visitor)) {
+                return;
+            }
+            Deque<ParseNode> nodes = new ArrayDeque<ParseNode>();
+            Deque<Iterator<ParseNode>> childrenToVisit = new ArrayDeque<Iterator<ParseNode>>();
+            nodes.push(root);
+            childrenToVisit.push(root.childIterator());
+
+            while (!nodes.isEmpty()) {
+                Iterator<ParseNode> children = childrenToVisit.peek();
+                if (children.hasNext()) {
+                    ParseNode child = children.next();
+                    if (child.acceptEnter(visitor)) {
+                        nodes.push(child);
+                        childrenToVisit.push(child.childIterator());
+                    }
+                } else {
+                    childrenToVisit.pop();
+                    nodes.pop().acceptLeave(visitor);
+                }
+            }
+        }
+    };
+
+    public abstract void traverse(ParseNode root, ParseNodeVisitor visitor);
+}
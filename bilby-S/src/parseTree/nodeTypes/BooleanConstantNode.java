@@ -1,5 +1,6 @@
 package parseTree.nodeTypes;
 
+import parseTree.ArenaTree;
 import parseTree.ParseNode;
 import parseTree.ParseNodeVisitor;
 import lexicalAnalyzer.Keyword;
@@ -16,22 +17,27 @@ public class BooleanConstantNode extends ParseNode {
         super(node);
     }
 
+    public BooleanConstantNode(ArenaTree arena, int index) {
+        super(arena, index);
+    }
+
     ////////////////////////////////////////////////////////////
     // attributes
 
     public boolean getValue() {
-        return token.isLextant(Keyword.TRUE);
+        return getToken().isLextant(Keyword.TRUE);
     }
 
     public LextantToken lextantToken() {
-        return (LextantToken) token;
+        return (LextantToken) getToken();
     }
 
     ///////////////////////////////////////////////////////////
     // accept a visitor
 
-    public void accept(ParseNodeVisitor visitor) {
+    protected boolean acceptEnter(ParseNodeVisitor visitor) {
         visitor.visit(this);
+        return false;
     }
 
 }
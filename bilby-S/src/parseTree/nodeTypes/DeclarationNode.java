@@ -1,5 +1,6 @@
 package parseTree.nodeTypes;
 
+import parseTree.ArenaTree;
 import parseTree.ParseNode;
 import parseTree.ParseNodeVisitor;
 import lexicalAnalyzer.Keyword;
@@ -18,6 +19,10 @@ public class DeclarationNode extends ParseNode {
         super(node);
     }
 
+    public DeclarationNode(ArenaTree arena, int index) {
+        super(arena, index);
+    }
+
     ////////////////////////////////////////////////////////////
     // attributes
 
@@ -26,7 +31,7 @@ public class DeclarationNode extends ParseNode {
     }
 
     public LextantToken lextantToken() {
-        return (LextantToken) token;
+        return (LextantToken) getToken();
     }
 
     ////////////////////////////////////////////////////////////
@@ -42,9 +47,12 @@ public class DeclarationNode extends ParseNode {
     ///////////////////////////////////////////////////////////
     // boilerplate for visitors
 
-    public void accept(ParseNodeVisitor visitor) {
+    protected boolean acceptEnter(ParseNodeVisitor visitor) {
         visitor.visitEnter(this);
-        visitChildren(visitor);
+        return true;
+    }
+
+    protected void acceptLeave(ParseNodeVisitor visitor) {
         visitor.visitLeave(this);
     }
 }
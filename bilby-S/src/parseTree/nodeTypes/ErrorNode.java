@@ -1,5 +1,6 @@
 package parseTree.nodeTypes;
 
+import parseTree.ArenaTree;
 import parseTree.ParseNode;
 import parseTree.ParseNodeVisitor;
 import tokens.Token;
@@ -10,6 +11,10 @@ public class ErrorNode extends ParseNode {
         super(node);
     }
 
+    public ErrorNode(ArenaTree arena, int index) {
+        super(arena, index);
+    }
+
     public ErrorNode(Token token) {
         super(token);
     }
@@ -17,7 +22,8 @@ public class ErrorNode extends ParseNode {
     ///////////////////////////////////////////////////////////
     // boilerplate for visitors
 
-    public void accept(ParseNodeVisitor visitor) {
+    protected boolean acceptEnter(ParseNodeVisitor visitor) {
         visitor.visit(this);
+        return false;
     }
 }
@@ -1,5 +1,6 @@
 package parseTree.nodeTypes;
 
+import parseTree.ArenaTree;
 import parseTree.ParseNode;
 import parseTree.ParseNodeVisitor;
 import logging.BilbyLogger;
@@ -22,24 +23,35 @@ public class IdentifierNode extends ParseNode {
         super(node);
 
         if (node instanceof IdentifierNode) {
-            this.binding = ((IdentifierNode) node).binding;
+            this.binding = ((IdentifierNode) node).getBinding();
         } else {
             this.binding = null;
         }
     }
 
+    public IdentifierNode(ArenaTree arena, int index) {
+        super(arena, index);
+    }
+
     ////////////////////////////////////////////////////////////
     // attributes
 
     public IdentifierToken identifierToken() {
-        return (IdentifierToken) token;
+        return (IdentifierToken) getToken();
     }
 
     public void setBinding(Binding binding) {
+        if (isArenaView()) {
+            arena().setBinding(arenaIndex(), binding);
+            return;
+        }
         this.binding = binding;
     }
 
     public Binding getBinding() {
+        if (isArenaView()) {
+            return arena().binding(arenaIndex());
+        }
         return binding;
     }
 
@@ -47,13 +59,18 @@ public class IdentifierNode extends ParseNode {
     // Speciality functions
 
     public Binding findVariableBinding() {
-        String identifier = token.getLexeme();
+        return findVariableBinding(getLocalScope());
+    }
+
+    // localScope is the scope this identifier is used in; a visitor that keeps
+    // track of it saves the walk up the tree to find it.
+    public Binding findVariableBinding(Scope localScope) {
+        int symbol = identifierToken().getSymbol();
 
-        for (ParseNode current : pathToRoot()) {
-            if (current.containsBindingOf(identifier)) {
-                declarationScope = current.getScope();
-                return current.bindingOf(identifier);
-            }
+        Scope scope = localScope.scopeBinding(symbol);
+        if (scope != null) {
+            declarationScope = scope;
+            return scope.getSymbolTable().lookup(symbol);
         }
         useBeforeDefineError();
         return Binding.nullInstance();
@@ -73,7 +90,8 @@ public class IdentifierNode extends ParseNode {
     ///////////////////////////////////////////////////////////
     // accept a visitor
 
-    public void accept(ParseNodeVisitor visitor) {
+    protected boolean acceptEnter(ParseNodeVisitor visitor) {
         visitor.visit(this);
+        return false;
     }
 }
@@ -1,5 +1,6 @@
 package parseTree.nodeTypes;
 
+import parseTree.ArenaTree;
 import parseTree.ParseNode;
 import parseTree.ParseNodeVisitor;
 import tokens.NumberToken;
@@ -15,6 +16,10 @@ public class IntegerConstantNode extends ParseNode {
         super(node);
     }
 
+    public IntegerConstantNode(ArenaTree arena, int index) {
+        super(arena, index);
+    }
+
     ////////////////////////////////////////////////////////////
     // attributes
 
@@ -23,14 +28,15 @@ public class IntegerConstantNode extends ParseNode {
     }
 
     public NumberToken numberToken() {
-        return (NumberToken) token;
+        return (NumberToken) getToken();
     }
 
     ///////////////////////////////////////////////////////////
     // accept a visitor
 
-    public void accept(ParseNodeVisitor visitor) {
+    protected boolean acceptEnter(ParseNodeVisitor visitor) {
         visitor.visit(this);
+        return false;
     }
 
 }
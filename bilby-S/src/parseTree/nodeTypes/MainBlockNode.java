@@ -1,28 +1,61 @@
 package parseTree.nodeTypes;
 
+import parseTree.DeferredBody;
+import parseTree.ArenaTree;
 import parseTree.ParseNode;
 import parseTree.ParseNodeVisitor;
 import tokens.Token;
 
 public class MainBlockNode extends ParseNode {
+    private DeferredBody deferredBody;
 
     public MainBlockNode(Token token) {
         super(token);
+        this.deferredBody = null;
     }
 
     public MainBlockNode(ParseNode node) {
         super(node);
+        if (node instanceof MainBlockNode) {
+            this.deferredBody = ((MainBlockNode) node).deferredBody;
+        }
+    }
+
+    public MainBlockNode(ArenaTree arena, int index) {
+        super(arena, index);
     }
 
     ////////////////////////////////////////////////////////////
-    // no attributes
+    // attributes
+
+    // a block whose body is deferred has no children until it is parsed.
+    public void setDeferredBody(DeferredBody deferredBody) {
+        this.deferredBody = deferredBody;
+    }
+
+    public boolean hasDeferredBody() {
+        return deferredBody != null;
+    }
+
+    public void parseDeferredBody() {
+        if (deferredBody != null) {
+            DeferredBody body = deferredBody;
+            deferredBody = null;
+            body.parseInto(this);
+        }
+    }
 
     ///////////////////////////////////////////////////////////
     // boilerplate for visitors
 
-    public void accept(ParseNodeVisitor visitor) {
+    // visiting a block parses its deferred body, if any.
+    protected boolean acceptEnter(ParseNodeVisitor visitor) {
+        parseDeferredBody();
         visitor.visitEnter(this);
-        visitChildren(visitor);
+        return true;
+    }
+
+    protected void acceptLeave(ParseNodeVisitor visitor) {
         visitor.visitLeave(this);
     }
 }
@@ -1,5 +1,6 @@
 package parseTree.nodeTypes;
 
+import parseTree.ArenaTree;
 import parseTree.ParseNode;
 import parseTree.ParseNodeVisitor;
 import lexicalAnalyzer.Lextant;
@@ -16,6 +17,10 @@ public class OperatorNode extends ParseNode {
         super(node);
     }
 
+    public OperatorNode(ArenaTree arena, int index) {
+        super(arena, index);
+    }
+
     ////////////////////////////////////////////////////////////
     // attributes
 
@@ -24,7 +29,7 @@ public class OperatorNode extends ParseNode {
     }
 
     public LextantToken lextantToken() {
-        return (LextantToken) token;
+        return (LextantToken) getToken();
     }
 
     ////////////////////////////////////////////////////////////
@@ -41,9 +46,12 @@ public class OperatorNode extends ParseNode {
     ///////////////////////////////////////////////////////////
     // boilerplate for visitors
 
-    public void accept(ParseNodeVisitor visitor) {
+    protected boolean acceptEnter(ParseNodeVisitor visitor) {
         visitor.visitEnter(this);
-        visitChildren(visitor);
+        return true;
+    }
+
+    protected void acceptLeave(ParseNodeVisitor visitor) {
         visitor.visitLeave(this);
     }
 }
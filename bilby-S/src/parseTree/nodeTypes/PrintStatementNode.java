@@ -1,5 +1,6 @@
 package parseTree.nodeTypes;
 
+import parseTree.ArenaTree;
 import parseTree.ParseNode;
 import parseTree.ParseNodeVisitor;
 import lexicalAnalyzer.Keyword;
@@ -16,15 +17,22 @@ public class PrintStatementNode extends ParseNode {
         super(node);
     }
 
+    public PrintStatementNode(ArenaTree arena, int index) {
+        super(arena, index);
+    }
+
     ////////////////////////////////////////////////////////////
     // attributes
 
     ///////////////////////////////////////////////////////////
     // boilerplate for visitors
 
-    public void accept(ParseNodeVisitor visitor) {
+    protected boolean acceptEnter(ParseNodeVisitor visitor) {
         visitor.visitEnter(this);
-        visitChildren(visitor);
+        return true;
+    }
+
+    protected void acceptLeave(ParseNodeVisitor visitor) {
         visitor.visitLeave(this);
     }
 
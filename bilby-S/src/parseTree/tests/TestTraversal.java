@@ -0,0 +1,83 @@
+package parseTree.tests;
+
+import static tests.SourceText.lex;
+
+import junit.framework.TestCase;
+import parseTree.ParseNode;
+import parseTree.ParseNodeVisitor;
+import parseTree.Traversal;
+import parseTree.nodeTypes.MainBlockNode;
+import parser.ArenaTreeBuilder;
+import parser.Parser;
+import semanticAnalyzer.SemanticAnalyzer;
+import semanticAnalyzer.types.PrimitiveType;
+import tests.LoggedMessages;
+
+public class TestTraversal extends TestCase {
+    private static final String PROGRAM = "main {\n imm a := 3 + 4 * 5;\n imm b := -a > 2;\n print a $s b $n;\n}\n";
+
+    // records each visit as E (enter), L (leave) or V (leaf), with the node's lexeme.
+    private static class Recorder extends ParseNodeVisitor.Default {
+        StringBuilder visits = new StringBuilder();
+
+        public void defaultVisitEnter(ParseNode node) {
+            visits.append("E" + node.getToken().getLexeme() + " ");
+        }
+
+        public void defaultVisitLeave(ParseNode node) {
+            visits.append("L" + node.getToken().getLexeme() + " ");
+        }
+
+        public void defaultVisitForLeaf(ParseNode node) {
+            visits.append("V" + node.getToken().getLexeme() + " ");
+        }
+    }
+
+    private LoggedMessages logged;
+
+    protected void setUp() {
+        logged = LoggedMessages.listen("compiler");
+    }
+
+    protected void tearDown() {
+        logged.stop();
+    }
+
+    public void testSameVisitsInSameOrder() {
+        ParseNode tree = Parser.parse(lex(PROGRAM));
+
+        assertEquals(visits(tree, Traversal.RECURSIVE), visits(tree, Traversal.ITERATIVE));
+        assertTrue(visits(tree, Traversal.ITERATIVE).startsWith("Emain E{ Eimm Va E+ V3 E* V4 V5 L* L+ Limm "));
+    }
+
+    public void testArenaTree() {
+        ParseNode tree = ArenaTreeBuilder.parse(lex(PROGRAM));
+
+        assertEquals(visits(Parser.parse(lex(PROGRAM)), Traversal.RECURSIVE), visits(tree, Traversal.ITERATIVE));
+    }
+
+    public void testDeferredBodyParsedWhenVisited() {
+        ParseNode tree = Parser.skim(lex(PROGRAM));
+
+        assertEquals(visits(Parser.parse(lex(PROGRAM)), Traversal.RECURSIVE), visits(tree, Traversal.ITERATIVE));
+        assertFalse(((MainBlockNode) tree.child(0)).hasDeferredBody());
+    }
+
+    public void testLongOperatorChain() {
+        StringBuilder program = new StringBuilder("main { imm a := 1; print a");
+        for (int i = 0; i < 10000; i++) {
+            program.append(" + a");
+        }
+        program.append("; }");
+        ParseNode tree = Parser.parse(lex(program.toString()));
+
+        SemanticAnalyzer.analyze(tree, Traversal.ITERATIVE);
+        assertEquals(PrimitiveType.INTEGER, tree.child(0).child(1).child(0).getType());
+    }
+
+    private String visits(ParseNode tree, Traversal traversal) {
+        Recorder recorder = new Recorder();
+        traversal.traverse(tree, recorder);
+        return recorder.visits.toString();
+    }
+}
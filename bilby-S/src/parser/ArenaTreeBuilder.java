@@ -0,0 +1,159 @@
+package parser;
+
+import lexicalAnalyzer.Scanner;
+import lexicalAnalyzer.TokenBuffer;
+import parseTree.ArenaTree;
+import parseTree.ParseNode;
+import tokens.Token;
+
+/**
+ * The ParseListener that builds the abstract syntax tree as an ArenaTree. It
+ * is the tree a ParseTreeBuilder builds, in a fraction of the memory, and is
+ * used through ParseNode views of its nodes.
+ * <p>
+ * The tree keeps token indices, not Tokens, so the parser must read the
+ * TokenBuffer through scanner(), which tells the builder the index of each
+ * token it hands out. The parser only reports the token it has just read or
+ * the one before, so the last two are enough.
+ */
+public class ArenaTreeBuilder implements ParseListener {
+    private ArenaTree tree;
+    private Scanner scanner;
+    private Token lastToken;
+    private int lastIndex;
+    private Token previousToken;
+    private int previousIndex;
+
+    public ArenaTreeBuilder(TokenBuffer tokens) {
+        this.tree = new ArenaTree(tokens);
+        this.scanner = new IndexingScanner(tokens);
+    }
+
+    /**
+     * @return a view of the root of the tree of the program of tokens, or an
+     *         ErrorNode if parsing was stopped (see Parser.parse()).
+     */
+    public static ParseNode parse(TokenBuffer tokens) {
+        ArenaTreeBuilder builder = new ArenaTreeBuilder(tokens);
+        ParseNode stopped = new Parser(builder.scanner(), builder).parse();
+        return stopped != null ? stopped : builder.result();
+    }
+
+    /**
+     * @return the scanner the parser reporting to this builder must read.
+     */
+    public Scanner scanner() {
+        return scanner;
+    }
+
+    public ArenaTree tree() {
+        return tree;
+    }
+
+    /**
+     * @return a view of the root of the tree built, or null if nothing has been
+     *         built.
+     */
+    public ParseNode result() {
+        return tree.node(tree.root());
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // ParseListener
+
+    public void enter(Production production, Token token) {
+        if (production == Production.BINARY_OPERATION) {
+            tree.openAroundLastChild(ArenaTree.Kind.OPERATOR, indexOf(token));
+        } else {
+            tree.open(kindOf(production), indexOf(token));
+        }
+    }
+
+    // as with ParseTreeBuilder, an ERROR after the main block becomes the tree.
+    public void exit(Production production, Token first, Token last) {
+        int node = tree.close();
+        if (production == Production.PROGRAM) {
+            // read the siblings, not the child index, which is not made until
+            // the tree is done.
+            int second = tree.nextSibling(tree.firstChild(node));
+            if (second != ArenaTree.NO_NODE && tree.nextSibling(second) == ArenaTree.NO_NODE) {
+                tree.makeRoot(second);
+            }
+        }
+    }
+
+    private int indexOf(Token token) {
+        if (token == lastToken) {
+            return lastIndex;
+        }
+        assert token == previousToken : "token " + token + " was not read through scanner()";
+        return previousIndex;
+    }
+
+    private static ArenaTree.Kind kindOf(Production production) {
+        switch (production) {
+        case PROGRAM:
+            return ArenaTree.Kind.PROGRAM;
+        case MAIN_BLOCK:
+            return ArenaTree.Kind.MAIN_BLOCK;
+        case DECLARATION:
+            return ArenaTree.Kind.DECLARATION;
+        case PRINT_STATEMENT:
+            return ArenaTree.Kind.PRINT_STATEMENT;
+        case BINARY_OPERATION:
+        case UNARY_OPERATION:
+            return ArenaTree.Kind.OPERATOR;
+        case INTEGER_CONSTANT:
+            return ArenaTree.Kind.INTEGER_CONSTANT;
+        case BOOLEAN_CONSTANT:
+            return ArenaTree.Kind.BOOLEAN_CONSTANT;
+        case IDENTIFIER:
+            return ArenaTree.Kind.IDENTIFIER;
+        case NEWLINE:
+            return ArenaTree.Kind.NEWLINE;
+        case SPACE:
+            return ArenaTree.Kind.SPACE;
+        default:
+            return ArenaTree.Kind.ERROR;
+        }
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // the scanner
+
+    private class IndexingScanner implements Scanner {
+        private TokenBuffer tokens;
+
+        IndexingScanner(TokenBuffer tokens) {
+            this.tokens = tokens;
+        }
+
+        public boolean hasNext() {
+            return tokens.hasNext();
+        }
+
+        public Token next() {
+            previousToken = lastToken;
+            previousIndex = lastIndex;
+            lastIndex = tokens.position();
+            lastToken = tokens.next();
+            return lastToken;
+        }
+
+        public Token peek(int k) {
+            return tokens.peek(k);
+        }
+
+        public int lookaheadCapacity() {
+            return tokens.lookaheadCapacity();
+        }
+
+        public void mark() {
+            tokens.mark();
+        }
+
+        public void rewind() {
+            tokens.rewind();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package parser;
+
+import lexicalAnalyzer.Lextant;
+import lexicalAnalyzer.Punctuator;
+import tokens.LextantToken;
+import tokens.Token;
+
+/**
+ * Binding powers and associativity of the binary (infix) operators, for the
+ * Pratt expression parser in Parser.
+ * <p>
+ * A higher binding power binds tighter. Each operator also names the grammar
+ * symbol of its right operand, which is what a syntax error reports when that
+ * operand is missing.
+ */
+public class OperatorPrecedence {
+    public enum Associativity {
+        LEFT, RIGHT, NONE
+    }
+
+    // binding power of a token that is not an infix operator; it ends any
+    // expression.
+    public static final int NOT_INFIX = 0;
+    // the lowest binding power of any infix operator.
+    public static final int LOWEST = 1;
+
+    private static final int COMPARISON = 10;
+    private static final int ADDITIVE = 20;
+    private static final int MULTIPLICATIVE = 30;
+
+    private static final int[] powers = new int[Punctuator.values().length];
+    private static final Associativity[] associativities = new Associativity[Punctuator.values().length];
+    private static final String[] rightOperands = new String[Punctuator.values().length];
+    static {
+        infix(Punctuator.GREATER, COMPARISON, Associativity.NONE, "additiveExpression");
+        infix(Punctuator.ADD, ADDITIVE, Associativity.LEFT, "multiplicativeExpression");
+        infix(Punctuator.MULTIPLY, MULTIPLICATIVE, Associativity.LEFT, "atomic expression");
+    }
+
+    private static void infix(Punctuator punctuator, int power, Associativity associativity, String rightOperand) {
+        powers[punctuator.ordinal()] = power;
+        associativities[punctuator.ordinal()] = associativity;
+        rightOperands[punctuator.ordinal()] = rightOperand;
+    }
+
+    private OperatorPrecedence() {
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // queries
+
+    /**
+     * @return the binding power of token as an infix operator, or NOT_INFIX.
+     */
+    public static int infixPower(Token token) {
+        if (!(token instanceof LextantToken)) {
+            return NOT_INFIX;
+        }
+        Lextant lextant = ((LextantToken) token).getLextant();
+        if (!(lextant instanceof Punctuator)) {
+            return NOT_INFIX;
+        }
+        return powers[((Punctuator) lextant).ordinal()];
+    }
+
+    /**
+     * @param token an infix operator.
+     */
+    public static Associativity associativity(Token token) {
+        return associativities[punctuatorOf(token).ordinal()];
+    }
+
+    /**
+     * @param token an infix operator.
+     * @return the minimum binding power of the operators in its right operand.
+     */
+    public static int rightOperandPower(Token token) {
+        int power = infixPower(token);
+        return associativity(token) == Associativity.RIGHT ? power : power + 1;
+    }
+
+    /**
+     * @param token an infix operator.
+     * @return the name of the grammar symbol of its right operand.
+     */
+    public static String rightOperandName(Token token) {
+        return rightOperands[punctuatorOf(token).ordinal()];
+    }
+
+    private static Punctuator punctuatorOf(Token token) {
+        return (Punctuator) ((LextantToken) token).getLextant();
+    }
+}
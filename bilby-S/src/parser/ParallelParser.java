@@ -0,0 +1,175 @@
+package parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import logging.BilbyLogger;
+import lexicalAnalyzer.Punctuator;
+import lexicalAnalyzer.TokenBuffer;
+import parseTree.ParseNode;
+import parseTree.nodeTypes.ErrorNode;
+import parseTree.nodeTypes.MainBlockNode;
+
+/**
+ * Parses a program from a TokenBuffer with the statements of its main block
+ * parsed in chunks, concurrently, into the tree a single Parser would build,
+ * with the same syntax errors in the same order.
+ * <p>
+ * The program is first parsed with its main block skimmed (see Parser.skim).
+ * The block body is then cut into chunks of about chunkTokens tokens, each but
+ * the last ending just after a statement terminator: with panic-mode recovery
+ * every terminator ends a statement, so a Parser starting at the next token is
+ * in step with one that has parsed everything before it. Each chunk is parsed
+ * by its own Parser, on its own range scanner, with its syntax errors kept
+ * rather than logged. The chunks' statements are appended to the main block,
+ * and their errors reported, in source order; the errors are then in the order
+ * a single Parser finds them whatever the thread scheduling, and the error
+ * budget applies to them as a whole.
+ */
+public class ParallelParser {
+    public static final int DEFAULT_CHUNK_TOKENS = 1 << 15;
+
+    private TokenBuffer tokens;
+    private int chunkTokens;
+    private ForkJoinPool pool;
+    private int errorBudget = Parser.DEFAULT_ERROR_BUDGET;
+
+    private Chunk[] chunks;
+
+    public ParallelParser(TokenBuffer tokens, int chunkTokens, ForkJoinPool pool) {
+        this.tokens = tokens;
+        this.chunkTokens = Math.max(chunkTokens, 1);
+        this.pool = pool;
+    }
+
+    /**
+     * Sets the number of syntax errors logged before the rest are suppressed.
+     */
+    public void setErrorBudget(int errorBudget) {
+        this.errorBudget = errorBudget;
+    }
+
+    /**
+     * Parses tokens on the common pool, or in one chunk if that pool has no
+     * parallelism to offer.
+     */
+    public static ParseNode parse(TokenBuffer tokens) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int chunkTokens = pool.getParallelism() < 2 ? Integer.MAX_VALUE : DEFAULT_CHUNK_TOKENS;
+        return new ParallelParser(tokens, chunkTokens, pool).parse();
+    }
+
+    public ParseNode parse() {
+        Parser skimmer = new Parser(tokens);
+        skimmer.skimBodies(tokens);
+        skimmer.setErrorBudget(errorBudget);
+        skimmer.deferErrors();
+        ParseNode result = skimmer.parse();
+
+        List<String> errors = new ArrayList<String>();
+        MainBlockNode mainBlock = skimmer.skimmedBlock();
+        if (mainBlock != null) {
+            // no syntax error can come before a skimmed block, so the body's
+            // errors come first.
+            mainBlock.setDeferredBody(null);
+            chunks = makeChunks(skimmer.skimmedOpen() + 1, skimmer.skimmedClose() + 1);
+            parseChunks();
+            for (Chunk chunk : chunks) {
+                for (ParseNode statement : chunk.statements.getChildren()) {
+                    mainBlock.appendChild(statement);
+                }
+                errors.addAll(chunk.errors);
+            }
+        }
+        errors.addAll(skimmer.deferredErrors());
+
+        try {
+            skimmer.reportErrors(errors);
+        } catch (BilbyLogger.BilbyLoggerException e) {
+            return new ErrorNode(tokens.token(0));
+        }
+        return result;
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // chunking
+
+    private static class Chunk {
+        int from;
+        int to;
+        ParseNode statements;
+        List<String> errors;
+
+        Chunk(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    // chunks of the tokens from..to-1, cut just after terminators. The last
+    // token is the block's close brace, which ends the last chunk's statements
+    // as it ends the block's.
+    private Chunk[] makeChunks(int from, int to) {
+        List<Chunk> result = new ArrayList<Chunk>();
+        int start = from;
+        while (start < to) {
+            int end = to;
+            if (to - start > chunkTokens) {
+                end = start + chunkTokens;
+                while (end < to && !tokens.isLextant(end - 1, Punctuator.TERMINATOR)) {
+                    end++;
+                }
+            }
+            result.add(new Chunk(start, end));
+            start = end;
+        }
+        return result.toArray(new Chunk[result.size()]);
+    }
+
+    private void parseChunks() {
+        if (chunks.length <= 1) {
+            for (Chunk chunk : chunks) {
+                parseChunk(chunk);
+            }
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (final Chunk chunk : chunks) {
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    parseChunk(chunk);
+                    return null;
+                }
+            });
+        }
+        for (Future<Void> future : pool.invokeAll(tasks)) {
+            waitFor(future);
+        }
+    }
+
+    private void parseChunk(Chunk chunk) {
+        chunk.statements = new ParseNode(tokens.token(chunk.from));
+        Parser parser = new Parser(tokens.scanner(chunk.from, chunk.to), new ParseTreeBuilder(chunk.statements));
+        parser.deferErrors();
+        parser.parseStatementsToEnd();
+        chunk.errors = parser.deferredErrors();
+    }
+
+    private static void waitFor(Future<Void> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
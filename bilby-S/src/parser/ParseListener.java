@@ -0,0 +1,28 @@
+package parser;
+
+import tokens.Token;
+
+/**
+ * Receives the structure of a program as a Parser finds it, as nested enter
+ * and exit events, one pair per production (tree node), without a tree being
+ * built.
+ * <p>
+ * Events nest as the tree's nodes do, with one exception: a binary operation
+ * is only known once its operator is read, after its left operand has been
+ * exited. So its enter event comes after that operand's exit, and its left
+ * operand is the production exited just before it was entered.
+ */
+public interface ParseListener {
+    /**
+     * @param token the token of the production's node: its keyword, operator,
+     *              brace or literal, or for an ERROR the token in error.
+     */
+    public void enter(Production production, Token token);
+
+    /**
+     * @param first the first token of the production.
+     * @param last  the last token of the production, or null if it has none
+     *              (an ERROR, which reads no tokens).
+     */
+    public void exit(Production production, Token first, Token last);
+}
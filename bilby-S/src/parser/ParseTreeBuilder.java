@@ -0,0 +1,109 @@
+package parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import parseTree.ParseNode;
+import parseTree.nodeTypes.BooleanConstantNode;
+import parseTree.nodeTypes.DeclarationNode;
+import parseTree.nodeTypes.ErrorNode;
+import parseTree.nodeTypes.IdentifierNode;
+import parseTree.nodeTypes.IntegerConstantNode;
+import parseTree.nodeTypes.MainBlockNode;
+import parseTree.nodeTypes.NewlineNode;
+import parseTree.nodeTypes.OperatorNode;
+import parseTree.nodeTypes.PrintStatementNode;
+import parseTree.nodeTypes.ProgramNode;
+import parseTree.nodeTypes.SpaceNode;
+import tokens.Token;
+
+/**
+ * The ParseListener that builds the abstract syntax tree, with one ParseNode
+ * per production.
+ * <p>
+ * A program with an ERROR after its main block (tokens left over at its end)
+ * is replaced by that ErrorNode.
+ */
+public class ParseTreeBuilder implements ParseListener {
+    private List<ParseNode> openNodes = new ArrayList<ParseNode>();
+    private ParseNode result = null;
+
+    /**
+     * Builds a tree whose root is returned by result().
+     */
+    public ParseTreeBuilder() {
+    }
+
+    /**
+     * Builds trees as children of parent, which is open (for instance, a block
+     * whose statements are being parsed).
+     */
+    public ParseTreeBuilder(ParseNode parent) {
+        openNodes.add(parent);
+    }
+
+    /**
+     * @return the root of the tree built, or null if nothing has been built.
+     */
+    public ParseNode result() {
+        return result;
+    }
+
+    /**
+     * @return the node entered last and not yet exited.
+     */
+    public ParseNode openNode() {
+        return openNodes.get(openNodes.size() - 1);
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // ParseListener
+
+    public void enter(Production production, Token token) {
+        ParseNode node = makeNode(production, token);
+        if (openNodes.isEmpty()) {
+            result = node;
+        } else if (production == Production.BINARY_OPERATION) {
+            ParseNode leftOperand = openNode().replaceLastChild(node);
+            node.appendChild(leftOperand);
+        } else {
+            openNode().appendChild(node);
+        }
+        openNodes.add(node);
+    }
+
+    public void exit(Production production, Token first, Token last) {
+        ParseNode node = openNodes.remove(openNodes.size() - 1);
+        if (production == Production.PROGRAM && node.nChildren() == 2) {
+            result = new ErrorNode(node.child(1).getToken());
+        }
+    }
+
+    private static ParseNode makeNode(Production production, Token token) {
+        switch (production) {
+        case PROGRAM:
+            return new ProgramNode(token);
+        case MAIN_BLOCK:
+            return new MainBlockNode(token);
+        case DECLARATION:
+            return new DeclarationNode(token);
+        case PRINT_STATEMENT:
+            return new PrintStatementNode(token);
+        case BINARY_OPERATION:
+        case UNARY_OPERATION:
+            return new OperatorNode(token);
+        case INTEGER_CONSTANT:
+            return new IntegerConstantNode(token);
+        case BOOLEAN_CONSTANT:
+            return new BooleanConstantNode(token);
+        case IDENTIFIER:
+            return new IdentifierNode(token);
+        case NEWLINE:
+            return new NewlineNode(token);
+        case SPACE:
+            return new SpaceNode(token);
+        default:
+            return new ErrorNode(token);
+        }
+    }
+}
@@ -1,65 +1,180 @@
 package parser;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
 
 import logging.BilbyLogger;
 import parseTree.*;
-import parseTree.nodeTypes.BooleanConstantNode;
 import parseTree.nodeTypes.MainBlockNode;
-import parseTree.nodeTypes.DeclarationNode;
 import parseTree.nodeTypes.ErrorNode;
-import parseTree.nodeTypes.IdentifierNode;
-import parseTree.nodeTypes.IntegerConstantNode;
-import parseTree.nodeTypes.NewlineNode;
-import parseTree.nodeTypes.OperatorNode;
-import parseTree.nodeTypes.PrintStatementNode;
-import parseTree.nodeTypes.ProgramNode;
-import parseTree.nodeTypes.SpaceNode;
 import tokens.*;
+import inputHandler.TextLocation;
 import lexicalAnalyzer.Keyword;
 import lexicalAnalyzer.Lextant;
 import lexicalAnalyzer.Punctuator;
 import lexicalAnalyzer.Scanner;
-
+import lexicalAnalyzer.TokenBuffer;
+
+/**
+ * Parses a program, reporting its productions to a ParseListener as it goes.
+ * The default listener is a ParseTreeBuilder, which builds the abstract syntax
+ * tree; any other listener sees the same productions without a tree being
+ * built, in memory independent of the program's length.
+ */
 public class Parser {
+    public static final int DEFAULT_ERROR_BUDGET = 100;
+
     private Scanner scanner;
+    private ParseListener listener;
+    private ParseTreeBuilder treeBuilder; // the listener, if it builds the tree
     private Token nowReading;
     private Token previouslyRead;
+    private Token stuckOperator; // the operator that ended the current expression early
+    private boolean recovering; // true from a syntax error until resynchronization
+    private int errorCount;
+    private int errorBudget = DEFAULT_ERROR_BUDGET;
+    private TokenBuffer skimmedTokens; // when skimming, the tokens being parsed
+    private MainBlockNode skimmedBlock; // the block whose body was deferred, if any
+    private int skimmedOpen; // and the index of its open brace in skimmedTokens
+    private int skimmedClose; // and of its close brace
+    private List<String> deferredErrors; // when not null, errors are kept here rather than logged
 
     public static ParseNode parse(Scanner scanner) {
         Parser parser = new Parser(scanner);
         return parser.parse();
     }
 
+    /**
+     * Parses the program of scanner, reporting it to listener only.
+     */
+    public static void parse(Scanner scanner, ParseListener listener) {
+        Parser parser = new Parser(scanner, listener);
+        parser.parse();
+    }
+
+    /**
+     * Parses a program without parsing block bodies. Each body is skimmed by
+     * brace matching over the tokens, and its block gets a DeferredBody that
+     * parses it on demand: when the block is visited, or when its
+     * parseDeferredBody() is called. Syntax errors in a body are reported when
+     * it is parsed.
+     */
+    public static ParseNode skim(TokenBuffer tokens) {
+        Parser parser = new Parser(tokens);
+        parser.skimBodies(tokens);
+        return parser.parse();
+    }
+
     public Parser(Scanner scanner) {
+        this(scanner, new ParseTreeBuilder());
+    }
+
+    public Parser(Scanner scanner, ParseListener listener) {
         super();
         this.scanner = scanner;
+        this.listener = listener;
+        if (listener instanceof ParseTreeBuilder) {
+            this.treeBuilder = (ParseTreeBuilder) listener;
+        }
     }
 
-    public ParseNode parse() {
+    //////////////////////////////////////////////////////////////////////////////
+    // hooks for ParallelParser
+
+    // skim block bodies of tokens, which must be this parser's scanner. Only a
+    // parser building the tree skims; others parse bodies as they come.
+    void skimBodies(TokenBuffer tokens) {
+        skimmedTokens = tokens;
+    }
+
+    MainBlockNode skimmedBlock() {
+        return skimmedBlock;
+    }
+
+    int skimmedOpen() {
+        return skimmedOpen;
+    }
+
+    int skimmedClose() {
+        return skimmedClose;
+    }
+
+    // keep syntax errors (as messages, in the order found) instead of logging
+    // them; they are not counted against the error budget.
+    void deferErrors() {
+        deferredErrors = new ArrayList<String>();
+    }
+
+    List<String> deferredErrors() {
+        return deferredErrors;
+    }
+
+    // parses statements up to the end of the scanner's tokens.
+    void parseStatementsToEnd() {
         readToken();
-        return parseProgram();
+        parseStatements();
+    }
+
+    // reports messages as if this parser had found them.
+    void reportErrors(List<String> messages) {
+        for (String message : messages) {
+            report(message);
+        }
+    }
+
+    /**
+     * Syntax errors beyond the budget are counted but not reported; a note is
+     * logged once the budget is exceeded.
+     */
+    public void setErrorBudget(int errorBudget) {
+        this.errorBudget = errorBudget;
+    }
+
+    public int errorCount() {
+        return errorCount;
+    }
+
+    /**
+     * @return the tree of the program, or an ErrorNode if it has errors that
+     *         prevent building one; null if the listener is not a
+     *         ParseTreeBuilder. If the BilbyLogger maximum error message count
+     *         is reached (see BilbyLogger.setMaximumErrorMessages), parsing
+     *         stops there and the result is an ErrorNode.
+     */
+    public ParseNode parse() {
+        try {
+            readToken();
+            parseProgram();
+            return treeBuilder == null ? null : treeBuilder.result();
+        } catch (BilbyLogger.BilbyLoggerException e) {
+            return new ErrorNode(nowReading != null ? nowReading : NullToken.make(TextLocation.nullInstance()));
+        }
     }
 
     ////////////////////////////////////////////////////////////
     // "program" is the start symbol S
     // S -> MAIN mainBlock
 
-    private ParseNode parseProgram() {
+    // tokens after the main block are an ERROR in the program (which the tree
+    // builder makes the whole tree).
+    private void parseProgram() {
         if (!startsProgram(nowReading)) {
-            return syntaxErrorNode("program");
+            syntaxErrorProduction("program");
+            return;
         }
-        ParseNode program = new ProgramNode(nowReading);
+        Token first = nowReading;
+        listener.enter(Production.PROGRAM, first);
 
         expect(Keyword.MAIN);
-        ParseNode mainBlock = parseMainBlock();
-        program.appendChild(mainBlock);
+        parseMainBlock();
 
         if (!(nowReading instanceof NullToken)) {
-            return syntaxErrorNode("end of program");
+            syntaxErrorProduction("end of program");
         }
-
-        return program;
+        listener.exit(Production.PROGRAM, first, previouslyRead);
     }
 
     private boolean startsProgram(Token token) {
@@ -70,40 +185,112 @@ public class Parser {
     // mainBlock
 
     // mainBlock -> { statement* }
-    private ParseNode parseMainBlock() {
+    private void parseMainBlock() {
         if (!startsMainBlock(nowReading)) {
-            return syntaxErrorNode("mainBlock");
+            syntaxErrorProduction("mainBlock");
+            return;
         }
-        ParseNode mainBlock = new MainBlockNode(nowReading);
+        Token first = nowReading;
+        listener.enter(Production.MAIN_BLOCK, first);
+        if (skimmedTokens != null && treeBuilder != null) {
+            skimBlockBody((MainBlockNode) treeBuilder.openNode());
+        } else {
+            parseBlockBody();
+        }
+        listener.exit(Production.MAIN_BLOCK, first, previouslyRead);
+    }
+
+    // blockBody -> { statement* }
+    private void parseBlockBody() {
         expect(Punctuator.OPEN_BRACE);
+        parseStatements();
+        expect(Punctuator.CLOSE_BRACE);
+    }
+
+    // statement* up to the end of the block
+    private void parseStatements() {
+        while (!endsMainBlock(nowReading)) {
+            Token start = nowReading;
+            parseStatement();
+            if (recovering) {
+                synchronize(start);
+            }
+        }
+    }
 
-        while (startsStatement(nowReading)) {
-            ParseNode statement = parseStatement();
-            mainBlock.appendChild(statement);
+    // Finds the brace closing the block opened at nowReading and defers the
+    // tokens from one to the other. Statements contain no braces, so a block
+    // ends at the first close brace, as it does in parseBlockBody (even after
+    // a stray open brace). An unclosed block is parsed right away, so that the
+    // error is reported as usual.
+    private void skimBlockBody(MainBlockNode block) {
+        int open = skimmedTokens.position() - 1;
+        TokenBuffer.Cursor cursor = skimmedTokens.cursor();
+        cursor.moveTo(open + 1);
+        while (!cursor.atEnd() && !cursor.isLextant(Punctuator.CLOSE_BRACE)) {
+            cursor.advance();
         }
+        if (cursor.atEnd()) {
+            parseBlockBody();
+            return;
+        }
+
+        int close = cursor.index();
+        skimmedBlock = block;
+        skimmedOpen = open;
+        skimmedClose = close;
+        block.setDeferredBody(new DeferredBlockBody(skimmedTokens, open, close + 1));
+        skimmedTokens.moveTo(close);
+        readToken();
         expect(Punctuator.CLOSE_BRACE);
-        return mainBlock;
+    }
+
+    // the tokens of a block body, from its opening brace to its closing one.
+    private static class DeferredBlockBody implements DeferredBody {
+        private final TokenBuffer tokens;
+        private final int from;
+        private final int to;
+
+        DeferredBlockBody(TokenBuffer tokens, int from, int to) {
+            this.tokens = tokens;
+            this.from = from;
+            this.to = to;
+        }
+
+        // if the maximum message count is reached, the body parsed so far is
+        // followed by an ErrorNode, as parse() returns one for a whole program.
+        public void parseInto(ParseNode block) {
+            Parser parser = new Parser(tokens.scanner(from, to), new ParseTreeBuilder(block));
+            try {
+                parser.readToken();
+                parser.parseBlockBody();
+            } catch (BilbyLogger.BilbyLoggerException e) {
+                Token token = parser.nowReading;
+                block.appendChild(new ErrorNode(token != null ? token : NullToken.make(TextLocation.nullInstance())));
+            }
+        }
     }
 
     private boolean startsMainBlock(Token token) {
         return token.isLextant(Punctuator.OPEN_BRACE);
     }
 
+    private boolean endsMainBlock(Token token) {
+        return token.isLextant(Punctuator.CLOSE_BRACE) || token instanceof NullToken;
+    }
+
     ///////////////////////////////////////////////////////////
     // statements
 
     // statement-> declaration | printStmt
-    private ParseNode parseStatement() {
-        if (!startsStatement(nowReading)) {
-            return syntaxErrorNode("statement");
-        }
+    private void parseStatement() {
         if (startsDeclaration(nowReading)) {
-            return parseDeclaration();
-        }
-        if (startsPrintStatement(nowReading)) {
-            return parsePrintStatement();
+            parseDeclaration();
+        } else if (startsPrintStatement(nowReading)) {
+            parsePrintStatement();
+        } else {
+            syntaxErrorProduction("statement");
         }
-        return syntaxErrorNode("statement");
     }
 
     private boolean startsStatement(Token token) {
@@ -111,69 +298,66 @@ public class Parser {
     }
 
     // printStmt -> PRINT printExpressionList TERMINATOR
-    private ParseNode parsePrintStatement() {
+    // a statement whose list does not start is an ERROR, not a print statement.
+    private void parsePrintStatement() {
         if (!startsPrintStatement(nowReading)) {
-            return syntaxErrorNode("print statement");
+            syntaxErrorProduction("print statement");
+            return;
         }
-        ParseNode result = new PrintStatementNode(nowReading);
-
+        Token first = nowReading;
         readToken();
-        result = parsePrintExpressionList(result);
+        if (!startsPrintExpressionList(nowReading)) {
+            syntaxErrorProduction("printExpressionList");
+            expect(Punctuator.TERMINATOR);
+            return;
+        }
 
+        listener.enter(Production.PRINT_STATEMENT, first);
+        parsePrintExpressionList();
         expect(Punctuator.TERMINATOR);
-        return result;
+        listener.exit(Production.PRINT_STATEMENT, first, previouslyRead);
     }
 
     private boolean startsPrintStatement(Token token) {
         return token.isLextant(Keyword.PRINT);
     }
 
-    // This adds the printExpressions it parses to the children of the given parent
     // printExpressionList -> printSeparator* (expression printSeparator+)*
     // expression? (note that this is nullable)
+    // the caller has checked that it starts a printExpressionList.
 
-    private ParseNode parsePrintExpressionList(ParseNode parent) {
-        if (!startsPrintExpressionList(nowReading)) {
-            return syntaxErrorNode("printExpressionList");
-        }
-
+    private void parsePrintExpressionList() {
         while (startsPrintSeparator(nowReading)) {
-            parsePrintSeparator(parent);
+            parsePrintSeparator();
         }
-        while (startsExpression(nowReading)) {
-            parent.appendChild(parseExpression());
-            if (nowReading.isLextant(Punctuator.TERMINATOR)) {
-                return parent;
+        while (startsExpression(nowReading) && !recovering) {
+            parseExpression();
+            if (recovering || nowReading.isLextant(Punctuator.TERMINATOR)) {
+                return;
             }
             do {
-                parsePrintSeparator(parent);
+                parsePrintSeparator();
             } while (startsPrintSeparator(nowReading));
         }
-        return parent;
     }
 
     private boolean startsPrintExpressionList(Token token) {
         return startsExpression(token) || startsPrintSeparator(token);
     }
 
-    // This adds the printSeparator it parses to the children of the given parent
     // printSeparator -> PRINT_SEPARATOR | PRINT_SPACE | PRINT_NEWLINE
+    // ($ separates without printing, so it is no production.)
 
-    private void parsePrintSeparator(ParseNode parent) {
+    private void parsePrintSeparator() {
         if (!startsPrintSeparator(nowReading)) {
-            ParseNode child = syntaxErrorNode("print separator");
-            parent.appendChild(child);
+            syntaxErrorProduction("print separator");
             return;
         }
 
         if (nowReading.isLextant(Punctuator.PRINT_NEWLINE)) {
-            readToken();
-            ParseNode child = new NewlineNode(previouslyRead);
-            parent.appendChild(child);
+            terminal(Production.NEWLINE);
         } else if (nowReading.isLextant(Punctuator.PRINT_SPACE)) {
-            readToken();
-            ParseNode child = new SpaceNode(previouslyRead);
-            parent.appendChild(child);
+            terminal(Production.SPACE);
         } else if (nowReading.isLextant(Punctuator.PRINT_SEPARATOR)) {
             readToken();
         }
@@ -184,19 +368,26 @@ public class Parser {
     }
 
     // declaration -> IMM identifier := expression TERMINATOR
-    private ParseNode parseDeclaration() {
+    // one without its identifier is an ERROR, and the rest is skipped by
+    // synchronize().
+    private void parseDeclaration() {
         if (!startsDeclaration(nowReading)) {
-            return syntaxErrorNode("declaration");
+            syntaxErrorProduction("declaration");
+            return;
         }
-        Token declarationToken = nowReading;
+        Token first = nowReading;
         readToken();
+        if (!startsIdentifier(nowReading)) {
+            syntaxErrorProduction("identifier");
+            return;
+        }
 
-        ParseNode identifier = parseIdentifier();
+        listener.enter(Production.DECLARATION, first);
+        parseIdentifier();
         expect(Punctuator.ASSIGN);
-        ParseNode initializer = parseExpression();
+        parseExpression();
         expect(Punctuator.TERMINATOR);
-
-        return DeclarationNode.withChildren(declarationToken, identifier, initializer);
+        listener.exit(Production.DECLARATION, first, previouslyRead);
     }
 
     private boolean startsDeclaration(Token token) {
@@ -205,7 +396,11 @@ public class Parser {
 
     ///////////////////////////////////////////////////////////
     // expressions
-    // expr -> comparisonExpression
+    // expr -> atomicExpression [infixOperator atomicExpression]*
+    // infixOperator -> > | + | MULT
+    // Binary expressions are parsed by precedence climbing (Pratt parsing) with the
+    // binding powers and associativities of OperatorPrecedence; a nonassociative
+    // operator (>) takes one right operand and ends the expression if repeated:
     // comparisonExpression -> additiveExpression [> additiveExpression]?
     // additiveExpression -> multiplicativeExpression [+ multiplicativeExpression]*
     /////////////////////////////////////////////////////////// (left-assoc)
@@ -215,132 +410,108 @@ public class Parser {
     // unaryExpression -> UNARYOP atomicExpression
     // literal -> intNumber | identifier | booleanConstant
 
-    // expr -> comparisonExpression
-    private ParseNode parseExpression() {
+    // expr -> atomicExpression [infixOperator atomicExpression]*
+    private void parseExpression() {
         if (!startsExpression(nowReading)) {
-            return syntaxErrorNode("expression");
+            syntaxErrorProduction("expression");
+            return;
         }
-        return parseComparisonExpression();
+        stuckOperator = null;
+        parseBinaryExpression(OperatorPrecedence.LOWEST);
     }
 
     private boolean startsExpression(Token token) {
-        return startsComparisonExpression(token);
+        return startsAtomicExpression(token);
     }
 
-    // comparisonExpression -> additiveExpression [> additiveExpression]?
-    private ParseNode parseComparisonExpression() {
-        if (!startsComparisonExpression(nowReading)) {
-            return syntaxErrorNode("comparison expression");
-        }
+    // Parses an expression whose infix operators all bind at least as tightly as
+    // minimumPower; the caller has checked that it starts an expression.
+    // An operation is entered once its operator is read, its left operand (the
+    // expression so far) having been exited.
+    private void parseBinaryExpression(int minimumPower) {
+        Token first = nowReading;
+        parseAtomicExpression();
+        int ceiling = Integer.MAX_VALUE;
 
-        ParseNode left = parseAdditiveExpression();
-        if (nowReading.isLextant(Punctuator.GREATER)) {
-            Token compareToken = nowReading;
+        while (true) {
+            int power = OperatorPrecedence.infixPower(nowReading);
+            if (power < minimumPower) {
+                return;
+            }
+            // an operator this level cannot take (a repeated nonassociative
+            // operator, or one binding tighter than a missing operand) ends the
+            // whole expression, as it would end every level of a descent parser.
+            if (power >= ceiling || nowReading == stuckOperator) {
+                stuckOperator = nowReading;
+                return;
+            }
+            Token operatorToken = nowReading;
+            listener.enter(Production.BINARY_OPERATION, operatorToken);
             readToken();
-            ParseNode right = parseAdditiveExpression();
-
-            return OperatorNode.withChildren(compareToken, left, right);
-        }
-        return left;
-
-    }
-
-    private boolean startsComparisonExpression(Token token) {
-        return startsAdditiveExpression(token);
-    }
 
-    // additiveExpression -> multiplicativeExpression [+ multiplicativeExpression]*
-    // (left-assoc)
-    private ParseNode parseAdditiveExpression() {
-        if (!startsAdditiveExpression(nowReading)) {
-            return syntaxErrorNode("additiveExpression");
-        }
-
-        ParseNode left = parseMultiplicativeExpression();
-        while (nowReading.isLextant(Punctuator.ADD)) {
-            Token additiveToken = nowReading;
-            readToken();
-            ParseNode right = parseMultiplicativeExpression();
+            if (startsExpression(nowReading)) {
+                parseBinaryExpression(OperatorPrecedence.rightOperandPower(operatorToken));
+            } else {
+                syntaxErrorProduction(OperatorPrecedence.rightOperandName(operatorToken));
+                ceiling = power + 1;
+            }
+            listener.exit(Production.BINARY_OPERATION, first, previouslyRead);
 
-            left = OperatorNode.withChildren(additiveToken, left, right);
+            if (OperatorPrecedence.associativity(operatorToken) == OperatorPrecedence.Associativity.NONE) {
+                ceiling = Math.min(ceiling, power);
+            }
         }
-        return left;
     }
 
-    private boolean startsAdditiveExpression(Token token) {
-        return startsMultiplicativeExpression(token);
-    }
-
-    // multiplicativeExpression -> atomicExpression [MULT atomicExpression]*
-    // (left-assoc)
-    private ParseNode parseMultiplicativeExpression() {
-        if (!startsMultiplicativeExpression(nowReading)) {
-            return syntaxErrorNode("multiplicativeExpression");
+    // atomicExpression -> unaryExpression | literal
+    // unaryExpression -> UNARYOP atomicExpression
+    // A run of unary operators is held on an explicit stack rather than nested
+    // calls, so prefix nesting is bounded by memory, not by the Java stack.
+    private void parseAtomicExpression() {
+        if (!startsAtomicExpression(nowReading)) {
+            syntaxErrorProduction("atomic expression");
+            return;
+        }
+        if (!startsUnaryExpression(nowReading)) {
+            parseLiteral();
+            return;
         }
 
-        ParseNode left = parseAtomicExpression();
-        while (nowReading.isLextant(Punctuator.MULTIPLY)) {
-            Token multiplicativeToken = nowReading;
+        Deque<Token> operators = new ArrayDeque<Token>();
+        while (startsUnaryExpression(nowReading)) {
+            operators.push(nowReading);
+            listener.enter(Production.UNARY_OPERATION, nowReading);
             readToken();
-            ParseNode right = parseAtomicExpression();
-
-            left = OperatorNode.withChildren(multiplicativeToken, left, right);
         }
-        return left;
-    }
-
-    private boolean startsMultiplicativeExpression(Token token) {
-        return startsAtomicExpression(token);
-    }
-
-    // atomicExpression -> unaryExpression | literal
-    private ParseNode parseAtomicExpression() {
         if (!startsAtomicExpression(nowReading)) {
-            return syntaxErrorNode("atomic expression");
+            syntaxErrorProduction("atomic expression");
+        } else {
+            parseLiteral();
         }
-        if (startsUnaryExpression(nowReading)) {
-            return parseUnaryExpression();
+        while (!operators.isEmpty()) {
+            listener.exit(Production.UNARY_OPERATION, operators.pop(), previouslyRead);
         }
-        return parseLiteral();
     }
 
     private boolean startsAtomicExpression(Token token) {
         return startsLiteral(token) || startsUnaryExpression(token);
     }
 
-    // unaryExpression -> UNARYOP atomicExpression
-    private ParseNode parseUnaryExpression() {
-        if (!startsUnaryExpression(nowReading)) {
-            return syntaxErrorNode("unary expression");
-        }
-        Token operatorToken = nowReading;
-        readToken();
-        ParseNode child = parseAtomicExpression();
-
-        return OperatorNode.withChildren(operatorToken, child);
-    }
-
     private boolean startsUnaryExpression(Token token) {
         return token.isLextant(Punctuator.SUBTRACT);
     }
 
     // literal -> number | identifier | booleanConstant
-    private ParseNode parseLiteral() {
-        if (!startsLiteral(nowReading)) {
-            return syntaxErrorNode("literal");
-        }
-
+    private void parseLiteral() {
         if (startsIntLiteral(nowReading)) {
-            return parseIntLiteral();
-        }
-        if (startsIdentifier(nowReading)) {
-            return parseIdentifier();
+            parseIntLiteral();
+        } else if (startsIdentifier(nowReading)) {
+            parseIdentifier();
+        } else if (startsBooleanLiteral(nowReading)) {
+            parseBooleanLiteral();
+        } else {
+            syntaxErrorProduction("literal");
         }
-        if (startsBooleanLiteral(nowReading)) {
-            return parseBooleanLiteral();
-        }
-
-        return syntaxErrorNode("literal");
     }
 
     private boolean startsLiteral(Token token) {
@@ -348,12 +519,12 @@ public class Parser {
     }
 
     // number (literal)
-    private ParseNode parseIntLiteral() {
+    private void parseIntLiteral() {
         if (!startsIntLiteral(nowReading)) {
-            return syntaxErrorNode("integer constant");
+            syntaxErrorProduction("integer constant");
+            return;
         }
-        readToken();
-        return new IntegerConstantNode(previouslyRead);
+        terminal(Production.INTEGER_CONSTANT);
     }
 
     private boolean startsIntLiteral(Token token) {
@@ -361,12 +532,12 @@ public class Parser {
     }
 
     // identifier (terminal)
-    private ParseNode parseIdentifier() {
+    private void parseIdentifier() {
         if (!startsIdentifier(nowReading)) {
-            return syntaxErrorNode("identifier");
+            syntaxErrorProduction("identifier");
+            return;
         }
-        readToken();
-        return new IdentifierNode(previouslyRead);
+        terminal(Production.IDENTIFIER);
     }
 
     private boolean startsIdentifier(Token token) {
@@ -374,43 +545,93 @@ public class Parser {
     }
 
     // boolean literal
-    private ParseNode parseBooleanLiteral() {
+    private void parseBooleanLiteral() {
         if (!startsBooleanLiteral(nowReading)) {
-            return syntaxErrorNode("boolean constant");
+            syntaxErrorProduction("boolean constant");
+            return;
         }
-        readToken();
-        return new BooleanConstantNode(previouslyRead);
+        terminal(Production.BOOLEAN_CONSTANT);
     }
 
     private boolean startsBooleanLiteral(Token token) {
         return token.isLextant(Keyword.TRUE, Keyword.FALSE);
     }
 
+    // reads the current token as a production of its own.
+    private void terminal(Production production) {
+        readToken();
+        listener.enter(production, previouslyRead);
+        listener.exit(production, previouslyRead, previouslyRead);
+    }
+
     private void readToken() {
         previouslyRead = nowReading;
         nowReading = scanner.next();
     }
 
     // if the current token is one of the given lextants, read the next token.
-    // otherwise, give a syntax error and read next token (to avoid endless
-    // looping).
+    // otherwise, give a syntax error and leave the token for synchronize() to
+    // skip.
     private void expect(Lextant... lextants) {
         if (!nowReading.isLextant(lextants)) {
             syntaxError(nowReading, "expecting " + Arrays.toString(lextants));
+            return;
         }
         readToken();
     }
 
-    private ErrorNode syntaxErrorNode(String expectedSymbol) {
+    // an ERROR production at the current token, which is not consumed.
+    private void syntaxErrorProduction(String expectedSymbol) {
         syntaxError(nowReading, "expecting " + expectedSymbol);
-        ErrorNode errorNode = new ErrorNode(nowReading);
-        readToken();
-        return errorNode;
+        listener.enter(Production.ERROR, nowReading);
+        listener.exit(Production.ERROR, nowReading, null);
+    }
+
+    ///////////////////////////////////////////////////////////
+    // error recovery (panic mode)
+    // The first syntax error in a statement is reported and puts the parser in
+    // recovery; errors that follow from it are not reported. The statement is
+    // parsed out without consuming tokens in error, and then synchronize()
+    // skips to the end of the statement, the start of the next one, or the end
+    // of the block.
+    // So every terminator ends a statement, which ParallelParser relies on.
+
+    // statementStart is the token the statement in error started at.
+    private void synchronize(Token statementStart) {
+        if (nowReading != statementStart && previouslyRead.isLextant(Punctuator.TERMINATOR)) {
+            recovering = false; // the statement read its terminator after all
+            return;
+        }
+        while (!startsStatement(nowReading) && !endsMainBlock(nowReading)) {
+            boolean atTerminator = nowReading.isLextant(Punctuator.TERMINATOR);
+            readToken();
+            if (atTerminator) {
+                break;
+            }
+        }
+        recovering = false;
     }
 
     private void syntaxError(Token token, String errorDescription) {
+        if (recovering) {
+            return;
+        }
+        recovering = true;
         String message = "" + token.getLocation() + " " + errorDescription;
-        error(message);
+        if (deferredErrors != null) {
+            deferredErrors.add(message);
+        } else {
+            report(message);
+        }
+    }
+
+    private void report(String message) {
+        errorCount++;
+        if (errorCount <= errorBudget) {
+            error(message);
+        } else if (errorCount == errorBudget + 1) {
+            error("more than " + errorBudget + " syntax errors; the rest are not reported");
+        }
     }
 
     private void error(String message) {
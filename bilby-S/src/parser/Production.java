@@ -0,0 +1,10 @@
+package parser;
+
+/**
+ * The productions a Parser reports to its ParseListener: one per kind of node
+ * in the tree it would build.
+ */
+public enum Production {
+    PROGRAM, MAIN_BLOCK, DECLARATION, PRINT_STATEMENT, BINARY_OPERATION, UNARY_OPERATION, INTEGER_CONSTANT,
+    BOOLEAN_CONSTANT, IDENTIFIER, NEWLINE, SPACE, ERROR;
+}
@@ -0,0 +1,106 @@
+package parser.tests;
+
+import static tests.SourceText.lex;
+
+import junit.framework.TestCase;
+import parseTree.ArenaTree;
+import parseTree.ParseNode;
+import parseTree.nodeTypes.ErrorNode;
+import parseTree.nodeTypes.OperatorNode;
+import parseTree.nodeTypes.ProgramNode;
+import parser.ArenaTreeBuilder;
+import parser.Parser;
+import semanticAnalyzer.SemanticAnalyzer;
+import tests.LoggedMessages;
+
+public class TestArenaTree extends TestCase {
+    private static final String PROGRAM = "main {\n imm a := 3 + 4 * 5;\n imm b := -a > 2;\n print a $s b $n;\n}\n";
+
+    private LoggedMessages logged;
+
+    protected void setUp() {
+        logged = LoggedMessages.listen("compiler");
+    }
+
+    protected void tearDown() {
+        logged.stop();
+    }
+
+    public void testSameTreeAsParseNodes() {
+        ParseNode arena = ArenaTreeBuilder.parse(lex(PROGRAM));
+        ParseNode tree = Parser.parse(lex(PROGRAM));
+
+        assertTrue(arena instanceof ProgramNode);
+        assertEquals(tree.toString(), arena.toString());
+    }
+
+    public void testSameDecorations() {
+        ParseNode arena = SemanticAnalyzer.analyze(ArenaTreeBuilder.parse(lex(PROGRAM)));
+        ParseNode tree = SemanticAnalyzer.analyze(Parser.parse(lex(PROGRAM)));
+
+        assertEquals(tree.toString(), arena.toString());
+    }
+
+    public void testBinaryOperationTakesItsLeftOperand() {
+        ArenaTreeBuilder builder = new ArenaTreeBuilder(lex("main { print 1 + 2 * 3 $n; }"));
+        new Parser(builder.scanner(), builder).parse();
+        ArenaTree tree = builder.tree();
+
+        int print = tree.firstChild(tree.firstChild(tree.root()));
+        int add = tree.firstChild(print);
+        assertEquals("+", tree.token(add).getLexeme());
+        assertEquals(2, tree.nChildren(add));
+        assertEquals("1", tree.token(tree.child(add, 0)).getLexeme());
+        assertEquals("*", tree.token(tree.child(add, 1)).getLexeme());
+        assertEquals(add, tree.parent(tree.child(add, 0)));
+        assertEquals(ArenaTree.Kind.NEWLINE, tree.kind(tree.nextSibling(add)));
+    }
+
+    public void testChildIndexMatchesSiblings() {
+        ArenaTreeBuilder builder = new ArenaTreeBuilder(lex(PROGRAM));
+        new Parser(builder.scanner(), builder).parse();
+        ArenaTree tree = builder.tree();
+
+        for (int node = 0; node < tree.size(); node++) {
+            int i = 0;
+            for (int child = tree.firstChild(node); child != ArenaTree.NO_NODE; child = tree.nextSibling(child)) {
+                assertEquals(child, tree.child(node, i++));
+            }
+            assertEquals(i, tree.nChildren(node));
+            assertEquals(tree.token(node).getLexeme(), tree.node(node).getToken().getLexeme());
+        }
+        try {
+            tree.child(tree.root(), tree.nChildren(tree.root()));
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+    }
+
+    public void testViewsOfTheSameNodeAreEqual() {
+        ParseNode program = ArenaTreeBuilder.parse(lex(PROGRAM));
+        ParseNode operator = program.child(0).child(0).child(1);
+
+        assertTrue(operator instanceof OperatorNode);
+        assertEquals(operator, program.child(0).child(0).child(1));
+        assertEquals(operator.hashCode(), program.child(0).child(0).child(1).hashCode());
+        assertEquals(program, operator.getParent().getParent().getParent());
+        assertFalse(operator.equals(operator.child(0)));
+    }
+
+    public void testTrailingTokensMakeAnErrorTree() {
+        ParseNode result = ArenaTreeBuilder.parse(lex("main { } print"));
+
+        assertTrue(result instanceof ErrorNode);
+        assertEquals("print", result.getToken().getLexeme());
+        assertNull(result.getParent());
+    }
+
+    public void testViewsCannotBeChanged() {
+        ParseNode program = ArenaTreeBuilder.parse(lex(PROGRAM));
+        try {
+            program.appendChild(new ErrorNode(program.getToken()));
+            fail();
+        } catch (UnsupportedOperationException e) {
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package parser.tests;
+
+import static tests.SourceText.lex;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+import lexicalAnalyzer.Scanner;
+import lexicalAnalyzer.TokenBuffer;
+import logging.BilbyLogger;
+import parseTree.ParseNode;
+import parseTree.nodeTypes.ErrorNode;
+import parseTree.nodeTypes.MainBlockNode;
+import parser.Parser;
+import tests.LoggedMessages;
+
+public class TestDeferredParsing extends TestCase {
+    private static final String PROGRAM = "main {\n imm a := 3 + 4 * 5;\n print a $s a > 2 $n;\n}\n";
+
+    private LoggedMessages logged;
+    private List<String> errors;
+
+    protected void setUp() {
+        logged = LoggedMessages.listen("compiler.Parser");
+        errors = logged.messages();
+    }
+
+    protected void tearDown() {
+        logged.stop();
+        BilbyLogger.setMaximumErrorMessages(Integer.MAX_VALUE);
+    }
+
+    public void testBodyIsDeferred() {
+        ParseNode program = Parser.skim(lex(PROGRAM));
+
+        MainBlockNode mainBlock = (MainBlockNode) program.child(0);
+        assertTrue(mainBlock.hasDeferredBody());
+        assertEquals(0, mainBlock.nChildren());
+
+        mainBlock.parseDeferredBody();
+        assertFalse(mainBlock.hasDeferredBody());
+        assertEquals(Parser.parse(lex(PROGRAM)).toString(), program.toString());
+    }
+
+    public void testBodyErrorsReportedWhenParsed() {
+        ParseNode program = Parser.skim(lex("main { imm a := ; print a; }"));
+        assertEquals(0, errors.size());
+
+        ((MainBlockNode) program.child(0)).parseDeferredBody();
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).endsWith("expecting expression"));
+    }
+
+    public void testAbortedBodyEndsInError() {
+        ParseNode program = Parser.skim(lex("main { imm a := ; print a; imm b 1; imm c 2; }"));
+        MainBlockNode mainBlock = (MainBlockNode) program.child(0);
+
+        BilbyLogger.setMaximumErrorMessages(BilbyLogger.messageCount() + 2);
+        mainBlock.parseDeferredBody();
+
+        assertEquals(2, errors.size());
+        ParseNode last = mainBlock.child(mainBlock.nChildren() - 1);
+        assertTrue(last instanceof ErrorNode);
+        assertEquals("1", last.getToken().getLexeme());
+    }
+
+    public void testUnclosedBlockParsedAtOnce() {
+        ParseNode program = Parser.skim(lex("main { imm a := 1;"));
+
+        MainBlockNode mainBlock = (MainBlockNode) program.child(0);
+        assertFalse(mainBlock.hasDeferredBody());
+        assertEquals(1, mainBlock.nChildren());
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).endsWith("expecting [CLOSE_BRACE]"));
+    }
+
+    public void testRangeScanner() {
+        TokenBuffer tokens = lex(PROGRAM);
+        Scanner first = tokens.scanner(2, 5);
+        Scanner second = tokens.scanner(2, 5);
+
+        assertEquals("imm", first.next().getLexeme());
+        assertEquals("imm", second.next().getLexeme());
+        assertEquals("a", first.next().getLexeme());
+        assertEquals(":=", first.next().getLexeme());
+        assertFalse(first.hasNext());
+        assertEquals("", first.next().getLexeme());
+        assertEquals("a", second.next().getLexeme());
+    }
+
+}
@@ -0,0 +1,110 @@
+package parser.tests;
+
+import static tests.SourceText.scanner;
+
+import junit.framework.TestCase;
+import parseTree.ParseNode;
+import parseTree.nodeTypes.ErrorNode;
+import parser.Parser;
+import tests.LoggedMessages;
+
+public class TestExpressionParsing extends TestCase {
+
+    public void testPrecedence() {
+        assertEquals("(a + (b * c))", initializer("a + b * c"));
+        assertEquals("((a * b) + c)", initializer("a * b + c"));
+        assertEquals("((a + b) > (c * d))", initializer("a + b > c * d"));
+        assertEquals("(((-a) * b) + (-(-c)))", initializer("-a * b + --c"));
+    }
+
+    public void testLeftAssociativity() {
+        assertEquals("(((a + b) + c) + d)", initializer("a + b + c + d"));
+        assertEquals("(((a * b) * c) + ((d * e) * f))", initializer("a * b * c + d * e * f"));
+    }
+
+    public void testSingleOperand() {
+        assertEquals("a", initializer("a"));
+        assertEquals("7", initializer("7"));
+    }
+
+    public void testRepeatedComparisonEndsExpression() {
+        LoggedMessages logged = LoggedMessages.listen("compiler");
+        try {
+            ParseNode print = parse("main { print a > b > c; }").child(0).child(0);
+            assertEquals(2, print.nChildren());
+            assertEquals("(a > b)", render(print.child(0)));
+            assertEquals("ERROR", render(print.child(1)));
+        } finally {
+            logged.stop();
+        }
+    }
+
+    public void testMissingOperand() {
+        LoggedMessages logged = LoggedMessages.listen("compiler");
+        try {
+            ParseNode program = parse("main { imm x := a + ; }");
+            assertEquals("(a + ERROR)", render(program.child(0).child(0).child(1)));
+        } finally {
+            logged.stop();
+        }
+    }
+
+    public void testDeepUnaryNesting() {
+        int depth = 100000;
+        StringBuilder expression = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            expression.append("- ");
+        }
+        expression.append("a");
+
+        ParseNode node = parse("main { imm x := " + expression + "; }").child(0).child(0).child(1);
+        for (int i = 0; i < depth; i++) {
+            assertEquals("-", node.getToken().getLexeme());
+            assertEquals(1, node.nChildren());
+            node = node.child(0);
+        }
+        assertEquals("a", node.getToken().getLexeme());
+    }
+
+    public void testLongOperatorChain() {
+        int length = 100000;
+        StringBuilder expression = new StringBuilder("a");
+        for (int i = 1; i < length; i++) {
+            expression.append(i % 2 == 0 ? " + a" : " * -a");
+        }
+
+        ParseNode node = parse("main { imm x := " + expression + "; }").child(0).child(0).child(1);
+        int additions = 0;
+        while (node.nChildren() == 2 && node.getToken().getLexeme().equals("+")) {
+            additions++;
+            node = node.child(0);
+        }
+        assertEquals(length / 2 - 1, additions);
+        assertEquals("*", node.getToken().getLexeme());
+    }
+
+    private String initializer(String expression) {
+        ParseNode program = parse("main { imm x := " + expression + "; }");
+        return render(program.child(0).child(0).child(1));
+    }
+
+    private ParseNode parse(String text) {
+        return Parser.parse(scanner(text));
+    }
+
+    // fully parenthesized form of an expression tree
+    private String render(ParseNode node) {
+        if (node instanceof ErrorNode) {
+            return "ERROR";
+        }
+        String lexeme = node.getToken().getLexeme();
+        switch (node.nChildren()) {
+        case 1:
+            return "(" + lexeme + render(node.child(0)) + ")";
+        case 2:
+            return "(" + render(node.child(0)) + " " + lexeme + " " + render(node.child(1)) + ")";
+        default:
+            return lexeme;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package parser.tests;
+
+import static tests.SourceText.lex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import junit.framework.TestCase;
+import lexicalAnalyzer.TokenBuffer;
+import parser.ParallelParser;
+import parser.Parser;
+import programGenerator.ProgramGenerator;
+import tests.LoggedMessages;
+
+public class TestParallelParser extends TestCase {
+    private static final int[] CHUNK_SIZES = { 1, 3, 16, 100, ParallelParser.DEFAULT_CHUNK_TOKENS };
+    private static final ForkJoinPool pool = new ForkJoinPool(4);
+
+    private LoggedMessages logged;
+    private List<String> errors;
+
+    protected void setUp() {
+        logged = LoggedMessages.listen("compiler.Parser");
+        errors = logged.messages();
+    }
+
+    protected void tearDown() {
+        logged.stop();
+    }
+
+    public void testGeneratedProgramMatchesSequentialParsing() {
+        assertMatchesSequentialParsing(ProgramGenerator.generate(500, 4, 11).getText(), Parser.DEFAULT_ERROR_BUDGET);
+    }
+
+    public void testErrorsMatchSequentialParsing() {
+        String program = "main {\n imm a := 1 2;\n print a $n;\n imm b 3;\n print ; x y ;\n"
+                + " print a > b > c;\n imm := 4;\n imm c := a print c;\n}\n trailing";
+        assertMatchesSequentialParsing(program, Parser.DEFAULT_ERROR_BUDGET);
+        assertMatchesSequentialParsing(program, 2);
+        assertMatchesSequentialParsing("main { imm a := 1; ", Parser.DEFAULT_ERROR_BUDGET);
+        assertMatchesSequentialParsing("imm a := 1;", Parser.DEFAULT_ERROR_BUDGET);
+    }
+
+    private void assertMatchesSequentialParsing(String text, int budget) {
+        TokenBuffer tokens = lex(text);
+        errors.clear();
+        Parser parser = new Parser(tokens);
+        parser.setErrorBudget(budget);
+        String expected = parser.parse().toString();
+        List<String> expectedErrors = new ArrayList<String>(errors);
+
+        for (int chunkTokens : CHUNK_SIZES) {
+            tokens.moveTo(0);
+            errors.clear();
+            ParallelParser parallelParser = new ParallelParser(tokens, chunkTokens, pool);
+            parallelParser.setErrorBudget(budget);
+            assertEquals("chunk size " + chunkTokens, expected, parallelParser.parse().toString());
+            assertEquals("chunk size " + chunkTokens, expectedErrors, errors);
+        }
+    }
+
+}
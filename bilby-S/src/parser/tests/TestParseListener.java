@@ -0,0 +1,103 @@
+package parser.tests;
+
+import static tests.SourceText.lex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import parser.ParseListener;
+import parser.ParseTreeBuilder;
+import parser.Parser;
+import parser.Production;
+import tests.LoggedMessages;
+import tokens.Token;
+
+public class TestParseListener extends TestCase {
+    private static final String PROGRAM = "main {\n imm a := 3 + 4 * 5;\n print a $s -a > 2 $n;\n}\n";
+
+    // records each event as a line: "enter X token" or "exit X first..last".
+    private static class Recorder implements ParseListener {
+        List<String> events = new ArrayList<String>();
+        int depth = 0;
+        int maximumDepth = 0;
+
+        public void enter(Production production, Token token) {
+            events.add("enter " + production + " " + token.getLexeme());
+            depth++;
+            maximumDepth = Math.max(maximumDepth, depth);
+        }
+
+        public void exit(Production production, Token first, Token last) {
+            events.add("exit " + production + " " + first.getLexeme() + ".." + (last == null ? "" : last.getLexeme()));
+            depth--;
+        }
+    }
+
+    private LoggedMessages logged;
+
+    protected void setUp() {
+        logged = LoggedMessages.listen("compiler.Parser");
+    }
+
+    protected void tearDown() {
+        logged.stop();
+    }
+
+    public void testEventsAndSpans() {
+        Recorder recorder = new Recorder();
+        Parser.parse(lex("main { imm a := -3 + 4; }"), recorder);
+
+        assertEquals(List.of(
+                "enter PROGRAM main",
+                "enter MAIN_BLOCK {",
+                "enter DECLARATION imm",
+                "enter IDENTIFIER a",
+                "exit IDENTIFIER a..a",
+                "enter UNARY_OPERATION -",
+                "enter INTEGER_CONSTANT 3",
+                "exit INTEGER_CONSTANT 3..3",
+                "exit UNARY_OPERATION -..3",
+                "enter BINARY_OPERATION +",
+                "enter INTEGER_CONSTANT 4",
+                "exit INTEGER_CONSTANT 4..4",
+                "exit BINARY_OPERATION -..4",
+                "exit DECLARATION imm..;",
+                "exit MAIN_BLOCK {..}",
+                "exit PROGRAM main..}"), recorder.events);
+        assertEquals(0, recorder.depth);
+    }
+
+    public void testErrorIsAnEmptySpan() {
+        Recorder recorder = new Recorder();
+        Parser.parse(lex("main { print 1 + ; }"), recorder);
+
+        assertTrue(recorder.events.contains("enter ERROR ;"));
+        assertTrue(recorder.events.contains("exit ERROR ;.."));
+        assertTrue(recorder.events.contains("exit BINARY_OPERATION 1..+"));
+        assertEquals(0, recorder.depth);
+    }
+
+    public void testListenerWithoutTree() {
+        Recorder recorder = new Recorder();
+        Parser parser = new Parser(lex(PROGRAM), recorder);
+
+        assertNull(parser.parse());
+        assertEquals(6, recorder.maximumDepth); // program, block, declaration, +, *, 5
+    }
+
+    public void testTreeBuilderIsTheDefault() {
+        ParseTreeBuilder builder = new ParseTreeBuilder();
+        Parser.parse(lex(PROGRAM), builder);
+
+        assertEquals(Parser.parse(lex(PROGRAM)).toString(), builder.result().toString());
+    }
+
+    public void testTrailingTokensMakeAnErrorTree() {
+        ParseTreeBuilder builder = new ParseTreeBuilder();
+        Parser.parse(lex("main { } print"), builder);
+
+        assertEquals("print", builder.result().getToken().getLexeme());
+        assertEquals(0, builder.result().nChildren());
+    }
+}
@@ -0,0 +1,103 @@
+package parser.tests;
+
+import static tests.SourceText.scanner;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+import logging.BilbyLogger;
+import parseTree.ParseNode;
+import parseTree.nodeTypes.DeclarationNode;
+import parseTree.nodeTypes.ErrorNode;
+import parseTree.nodeTypes.PrintStatementNode;
+import parser.Parser;
+import tests.LoggedMessages;
+
+public class TestSyntaxErrorRecovery extends TestCase {
+    private LoggedMessages logged;
+    private List<String> errors;
+
+    protected void setUp() {
+        logged = LoggedMessages.listen("compiler.Parser");
+        errors = logged.messages();
+    }
+
+    protected void tearDown() {
+        logged.stop();
+        BilbyLogger.setMaximumErrorMessages(Integer.MAX_VALUE);
+    }
+
+    public void testOneErrorPerStatement() {
+        ParseNode program = parse("main { imm x := 1 2 3; print x $n; imm y ; print y; }");
+
+        assertEquals(2, errors.size());
+        assertTrue(errors.get(0).endsWith("character 18) expecting [TERMINATOR]"));
+        assertTrue(errors.get(1).endsWith("character 41) expecting [ASSIGN]"));
+
+        ParseNode mainBlock = program.child(0);
+        assertEquals(4, mainBlock.nChildren());
+        assertTrue(mainBlock.child(0) instanceof DeclarationNode);
+        assertTrue(mainBlock.child(1) instanceof PrintStatementNode);
+        assertTrue(mainBlock.child(2) instanceof DeclarationNode);
+        assertTrue(mainBlock.child(3) instanceof PrintStatementNode);
+    }
+
+    public void testSynchronizesOnStatementStart() {
+        ParseNode program = parse("main { imm print 1; x y z print 2; }");
+
+        assertEquals(2, errors.size());
+        assertTrue(errors.get(0).endsWith("expecting identifier"));
+        assertTrue(errors.get(1).endsWith("expecting statement"));
+
+        ParseNode mainBlock = program.child(0);
+        assertEquals(4, mainBlock.nChildren());
+        assertTrue(mainBlock.child(0) instanceof ErrorNode);
+        assertTrue(mainBlock.child(1) instanceof PrintStatementNode);
+        assertTrue(mainBlock.child(2) instanceof ErrorNode);
+        assertTrue(mainBlock.child(3) instanceof PrintStatementNode);
+    }
+
+    public void testTerminatorEndsStatementInError() {
+        ParseNode program = parse("main { print ; x y ; print 1; }");
+
+        assertEquals(2, errors.size());
+        assertTrue(errors.get(0).endsWith("expecting printExpressionList"));
+        assertTrue(errors.get(1).endsWith("expecting statement"));
+        assertEquals(3, program.child(0).nChildren());
+    }
+
+    public void testErrorBudget() {
+        StringBuilder text = new StringBuilder("main {\n");
+        for (int i = 0; i < 1000; i++) {
+            text.append("imm x 1;\n");
+        }
+        text.append("}\n");
+
+        Parser parser = new Parser(scanner(text.toString()));
+        parser.setErrorBudget(10);
+        ParseNode program = parser.parse();
+
+        assertEquals(1000, parser.errorCount());
+        assertEquals(11, errors.size());
+        assertEquals("syntax error: more than 10 syntax errors; the rest are not reported", errors.get(10));
+        assertEquals(1000, program.child(0).nChildren());
+    }
+
+    public void testMaximumErrorMessages() {
+        StringBuilder text = new StringBuilder("main {\n");
+        for (int i = 0; i < 1000; i++) {
+            text.append("imm x 1;\n");
+        }
+        text.append("}\n");
+
+        BilbyLogger.setMaximumErrorMessages(BilbyLogger.messageCount() + 5);
+        ParseNode result = parse(text.toString());
+
+        assertTrue(result instanceof ErrorNode);
+        assertEquals(5, errors.size());
+    }
+
+    private ParseNode parse(String text) {
+        return Parser.parse(scanner(text));
+    }
+}
@@ -0,0 +1,28 @@
+package programGenerator;
+
+/**
+ * The text of a generated bilby program, with the output it prints when run.
+ */
+public class GeneratedProgram {
+    private String text;
+    private String expectedOutput;
+    private int statementCount;
+
+    public GeneratedProgram(String text, String expectedOutput, int statementCount) {
+        this.text = text;
+        this.expectedOutput = expectedOutput;
+        this.statementCount = statementCount;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getExpectedOutput() {
+        return expectedOutput;
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+}
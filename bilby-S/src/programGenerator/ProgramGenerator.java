@@ -0,0 +1,290 @@
+package programGenerator;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import lexicalAnalyzer.Keyword;
+import lexicalAnalyzer.Punctuator;
+import semanticAnalyzer.types.PrimitiveType;
+
+/**
+ * Generates valid, type-correct bilby programs of a given size, together with
+ * the output they print.
+ * <p>
+ * Programs follow the grammar of Parser:
+ *
+ * <pre>
+ * S -> MAIN { statement* }
+ * statement -> IMM identifier := expression ; | PRINT printExpressionList ;
+ * expression -> additive [> additive]?
+ * additive -> multiplicative [+ multiplicative]*
+ * multiplicative -> atomic [* atomic]*
+ * atomic -> - atomic | number | identifier | booleanConstant
+ * </pre>
+ *
+ * and are typed as SemanticAnalysisVisitor types them: +, * and unary - take
+ * INTEGERs to an INTEGER, and > takes INTEGERs to a BOOLEAN. Every identifier
+ * is declared once, before its uses.
+ * <p>
+ * Each expression is evaluated as it is generated. Expressions with an
+ * intermediate value outside the int range are discarded and generated anew,
+ * and declared integers are kept within VALUE_LIMIT, so running the program
+ * never overflows and prints exactly getExpectedOutput().
+ * <p>
+ * The expression depth bounds the height of each expression's operator tree.
+ */
+public class ProgramGenerator {
+    public static final int DEFAULT_STATEMENTS = 100;
+    public static final int DEFAULT_EXPRESSION_DEPTH = 4;
+    public static final int VALUE_LIMIT = 1000000;
+
+    private static final int MAX_LITERAL = 100;
+    private static final int ATTEMPTS = 20;
+    private static final String INDENT = "    ";
+
+    private int statements;
+    private int expressionDepth;
+    private Random random;
+
+    private Map<PrimitiveType, List<Variable>> variables;
+    private StringBuilder text;
+    private StringBuilder output;
+
+    public ProgramGenerator(int statements, int expressionDepth, long seed) {
+        this.statements = statements;
+        this.expressionDepth = Math.max(expressionDepth, 0);
+        this.random = new Random(seed);
+    }
+
+    public static GeneratedProgram generate(int statements, int expressionDepth, long seed) {
+        return new ProgramGenerator(statements, expressionDepth, seed).generate();
+    }
+
+    public GeneratedProgram generate() {
+        variables = new EnumMap<PrimitiveType, List<Variable>>(PrimitiveType.class);
+        variables.put(PrimitiveType.INTEGER, new ArrayList<Variable>());
+        variables.put(PrimitiveType.BOOLEAN, new ArrayList<Variable>());
+        text = new StringBuilder();
+        output = new StringBuilder();
+
+        text.append(Keyword.MAIN.getLexeme()).append(" ").append(Punctuator.OPEN_BRACE.getLexeme()).append("\n");
+        for (int i = 0; i < statements; i++) {
+            statement();
+        }
+        text.append(Punctuator.CLOSE_BRACE.getLexeme()).append("\n");
+
+        return new GeneratedProgram(text.toString(), output.toString(), statements);
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // statements
+
+    private void statement() {
+        int choice = random.nextInt(10);
+        if (choice < 2 && !variables.get(PrimitiveType.INTEGER).isEmpty()) {
+            printStatement();
+        } else if (choice < 4) {
+            declaration(PrimitiveType.BOOLEAN);
+        } else {
+            declaration(PrimitiveType.INTEGER);
+        }
+    }
+
+    // declaration -> IMM identifier := expression ;
+    private void declaration(PrimitiveType type) {
+        List<Variable> declared = variables.get(type);
+        Expression expression = declaredExpression(type);
+        Variable variable = new Variable(nameFor(type, declared.size()), expression.value);
+
+        text.append(INDENT).append(Keyword.IMM.getLexeme()).append(" ").append(variable.name).append(" ")
+                .append(Punctuator.ASSIGN.getLexeme()).append(" ").append(expression.text)
+                .append(Punctuator.TERMINATOR.getLexeme()).append("\n");
+        declared.add(variable);
+    }
+
+    private Expression declaredExpression(PrimitiveType type) {
+        for (int attempt = 0; attempt < ATTEMPTS; attempt++) {
+            Expression expression = expression(type, expressionDepth);
+            if (expression != null && (type != PrimitiveType.INTEGER || Math.abs(expression.value) <= VALUE_LIMIT)) {
+                return expression;
+            }
+        }
+        return expression(type, 0);
+    }
+
+    // printStatement -> PRINT printExpressionList ;
+    // with one to three expressions, each followed by separators, the last by
+    // a newline.
+    private void printStatement() {
+        text.append(INDENT).append(Keyword.PRINT.getLexeme());
+        int count = 1 + random.nextInt(3);
+        for (int i = 0; i < count; i++) {
+            PrimitiveType type = random.nextInt(3) == 0 ? PrimitiveType.BOOLEAN : PrimitiveType.INTEGER;
+            Expression expression = printedExpression(type);
+            text.append(" ").append(expression.text);
+            output.append(printed(type, expression.value));
+
+            Punctuator separator = i == count - 1 ? Punctuator.PRINT_NEWLINE : randomSeparator();
+            text.append(" ").append(separator.getLexeme());
+            output.append(printed(separator));
+        }
+        text.append(Punctuator.TERMINATOR.getLexeme()).append("\n");
+    }
+
+    private Expression printedExpression(PrimitiveType type) {
+        for (int attempt = 0; attempt < ATTEMPTS; attempt++) {
+            Expression expression = expression(type, expressionDepth);
+            if (expression != null) {
+                return expression;
+            }
+        }
+        return expression(type, 0);
+    }
+
+    private Punctuator randomSeparator() {
+        Punctuator[] separators = { Punctuator.PRINT_SEPARATOR, Punctuator.PRINT_SPACE, Punctuator.PRINT_NEWLINE };
+        return separators[random.nextInt(separators.length)];
+    }
+
+    private static String printed(PrimitiveType type, long value) {
+        if (type == PrimitiveType.BOOLEAN) {
+            return value != 0 ? Keyword.TRUE.getLexeme() : Keyword.FALSE.getLexeme();
+        }
+        return Long.toString(value);
+    }
+
+    private static String printed(Punctuator separator) {
+        switch (separator) {
+        case PRINT_SPACE:
+            return " ";
+        case PRINT_NEWLINE:
+            return "\n";
+        default:
+            return "";
+        }
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // expressions
+    // Each method returns null if a value fell outside the int range. Boolean
+    // values are 1 (true) and 0 (false).
+
+    private static class Expression {
+        String text;
+        long value;
+
+        Expression(String text, long value) {
+            this.text = text;
+            this.value = value;
+        }
+    }
+
+    private Expression expression(PrimitiveType type, int depth) {
+        if (type == PrimitiveType.BOOLEAN) {
+            return booleanExpression(depth);
+        }
+        return additive(depth);
+    }
+
+    // expression -> additive > additive, or an atomic boolean.
+    private Expression booleanExpression(int depth) {
+        if (depth == 0 || random.nextInt(3) == 0) {
+            return booleanAtom();
+        }
+        Expression left = additive(depth - 1);
+        Expression right = additive(depth - 1);
+        if (left == null || right == null) {
+            return null;
+        }
+        return new Expression(left.text + " " + Punctuator.GREATER.getLexeme() + " " + right.text,
+                left.value > right.value ? 1 : 0);
+    }
+
+    private Expression booleanAtom() {
+        List<Variable> declared = variables.get(PrimitiveType.BOOLEAN);
+        if (!declared.isEmpty() && random.nextBoolean()) {
+            Variable variable = declared.get(random.nextInt(declared.size()));
+            return new Expression(variable.name, variable.value);
+        }
+        boolean value = random.nextBoolean();
+        return new Expression(value ? Keyword.TRUE.getLexeme() : Keyword.FALSE.getLexeme(), value ? 1 : 0);
+    }
+
+    // additive -> multiplicative [+ multiplicative]*, as a left-leaning tree
+    // of height terms-1 over its terms.
+    private Expression additive(int depth) {
+        int terms = 1 + random.nextInt(depth + 1);
+        Expression result = multiplicative(depth - (terms - 1));
+        for (int i = 1; i < terms && result != null; i++) {
+            Expression term = multiplicative(depth - (terms - 1));
+            result = combine(result, Punctuator.ADD, term);
+        }
+        return result;
+    }
+
+    private Expression multiplicative(int depth) {
+        int factors = 1 + random.nextInt(depth + 1);
+        Expression result = atomic(depth - (factors - 1));
+        for (int i = 1; i < factors && result != null; i++) {
+            Expression factor = atomic(depth - (factors - 1));
+            result = combine(result, Punctuator.MULTIPLY, factor);
+        }
+        return result;
+    }
+
+    private Expression combine(Expression left, Punctuator operator, Expression right) {
+        if (right == null) {
+            return null;
+        }
+        long value = operator == Punctuator.ADD ? left.value + right.value : left.value * right.value;
+        if (value != (int) value) {
+            return null;
+        }
+        return new Expression(left.text + " " + operator.getLexeme() + " " + right.text, value);
+    }
+
+    // atomic -> - atomic | number | identifier
+    private Expression atomic(int depth) {
+        if (depth > 0 && random.nextInt(4) == 0) {
+            Expression operand = atomic(depth - 1);
+            if (operand == null || -operand.value != (int) -operand.value) {
+                return null;
+            }
+            return new Expression(Punctuator.SUBTRACT.getLexeme() + operand.text, -operand.value);
+        }
+        List<Variable> declared = variables.get(PrimitiveType.INTEGER);
+        if (!declared.isEmpty() && random.nextBoolean()) {
+            Variable variable = declared.get(random.nextInt(declared.size()));
+            return new Expression(variable.name, variable.value);
+        }
+        int value = random.nextInt(MAX_LITERAL);
+        return new Expression(Integer.toString(value), value);
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // variables
+
+    private static class Variable {
+        String name;
+        long value;
+
+        Variable(String name, long value) {
+            this.name = name;
+            this.value = value;
+        }
+    }
+
+    // identifiers are lowercase letters only, so the index is spelled with the
+    // digits a to j after a prefix (n for integers, b for booleans) that no
+    // keyword starts with.
+    private static String nameFor(PrimitiveType type, int index) {
+        StringBuilder result = new StringBuilder(type == PrimitiveType.INTEGER ? "n" : "b");
+        for (char digit : Integer.toString(index).toCharArray()) {
+            result.append((char) ('a' + digit - '0'));
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,42 @@
+package programGenerator.tests;
+
+import benchmarks.BenchmarkInput;
+import junit.framework.TestCase;
+import programGenerator.GeneratedProgram;
+import programGenerator.ProgramGenerator;
+
+public class TestProgramGenerator extends TestCase {
+
+    public void testProgramsCompileWithoutErrors() {
+        for (int depth = 0; depth <= 8; depth += 2) {
+            for (long seed = 1; seed <= 5; seed++) {
+                GeneratedProgram program = ProgramGenerator.generate(200, depth, seed);
+                BenchmarkInput input = BenchmarkInput.program("generated", program.getText());
+                assertFalse("depth " + depth + " seed " + seed, input.isEmpty());
+            }
+        }
+    }
+
+    public void testSameSeedSameProgram() {
+        GeneratedProgram first = ProgramGenerator.generate(300, 5, 42);
+        GeneratedProgram second = ProgramGenerator.generate(300, 5, 42);
+        GeneratedProgram other = ProgramGenerator.generate(300, 5, 43);
+
+        assertEquals(first.getText(), second.getText());
+        assertEquals(first.getExpectedOutput(), second.getExpectedOutput());
+        assertFalse(first.getText().equals(other.getText()));
+    }
+
+    public void testStatementCount() {
+        GeneratedProgram program = ProgramGenerator.generate(150, 3, 7);
+        assertEquals(150, program.getStatementCount());
+
+        int terminators = 0;
+        for (char c : program.getText().toCharArray()) {
+            if (c == ';') {
+                terminators++;
+            }
+        }
+        assertEquals(150, terminators);
+    }
+}
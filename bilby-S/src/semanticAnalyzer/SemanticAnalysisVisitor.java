@@ -1,6 +1,8 @@
 package semanticAnalyzer;
 
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
 
 import lexicalAnalyzer.Lextant;
@@ -27,6 +29,13 @@ import tokens.LextantToken;
 import tokens.Token;
 
 class SemanticAnalysisVisitor extends ParseNodeVisitor.Default {
+    // the scopes of the nodes being visited, innermost first, so an identifier
+    // finds its scope without walking up the tree.
+    private Deque<Scope> openScopes = new ArrayDeque<Scope>();
+    // set on entering a declaration, whose first child is the identifier it
+    // declares.
+    private boolean declaringIdentifier = false;
+
     @Override
     public void visitLeave(ParseNode node) {
         throw new RuntimeException("Node class unimplemented in SemanticAnalysisVisitor: " + node.getClass());
@@ -54,17 +63,24 @@ class SemanticAnalysisVisitor extends ParseNodeVisitor.Default {
     private void enterProgramScope(ParseNode node) {
         Scope scope = Scope.createProgramScope();
         node.setScope(scope);
+        openScopes.push(scope);
     }
 
     @SuppressWarnings("unused")
     private void enterSubscope(ParseNode node) {
-        Scope baseScope = node.getLocalScope();
+        Scope baseScope = localScope();
         Scope scope = baseScope.createSubscope();
         node.setScope(scope);
+        openScopes.push(scope);
     }
 
     private void leaveScope(ParseNode node) {
         node.getScope().leave();
+        openScopes.pop();
+    }
+
+    private Scope localScope() {
+        return openScopes.isEmpty() ? Scope.nullInstance() : openScopes.peek();
     }
 
     ///////////////////////////////////////////////////////////////////////////
@@ -73,6 +89,11 @@ class SemanticAnalysisVisitor extends ParseNodeVisitor.Default {
     public void visitLeave(PrintStatementNode node) {
     }
 
+    @Override
+    public void visitEnter(DeclarationNode node) {
+        declaringIdentifier = true;
+    }
+
     @Override
     public void visitLeave(DeclarationNode node) {
         IdentifierNode identifier = (IdentifierNode) node.child(0);
@@ -146,8 +167,10 @@ class SemanticAnalysisVisitor extends ParseNodeVisitor.Default {
     // IdentifierNodes, with helper methods
     @Override
     public void visit(IdentifierNode node) {
-        if (!isBeingDeclared(node)) {
-            Binding binding = node.findVariableBinding();
+        boolean beingDeclared = declaringIdentifier;
+        declaringIdentifier = false;
+        if (!beingDeclared) {
+            Binding binding = node.findVariableBinding(localScope());
 
             node.setType(binding.getType());
             node.setBinding(binding);
@@ -155,13 +178,8 @@ class SemanticAnalysisVisitor extends ParseNodeVisitor.Default {
         // else parent DeclarationNode does the processing.
     }
 
-    private boolean isBeingDeclared(IdentifierNode node) {
-        ParseNode parent = node.getParent();
-        return (parent instanceof DeclarationNode) && (node == parent.child(0));
-    }
-
     private void addBinding(IdentifierNode identifierNode, Type type) {
-        Scope scope = identifierNode.getLocalScope();
+        Scope scope = localScope();
         Binding binding = scope.createBinding(identifierNode, type);
         identifierNode.setBinding(binding);
     }
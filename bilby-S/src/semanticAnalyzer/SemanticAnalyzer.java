@@ -4,18 +4,29 @@ import parseTree.*;
 
 public class SemanticAnalyzer {
     ParseNode ASTree;
+    Traversal traversal;
 
     public static ParseNode analyze(ParseNode ASTree) {
         SemanticAnalyzer analyzer = new SemanticAnalyzer(ASTree);
         return analyzer.analyze();
     }
 
+    public static ParseNode analyze(ParseNode ASTree, Traversal traversal) {
+        SemanticAnalyzer analyzer = new SemanticAnalyzer(ASTree, traversal);
+        return analyzer.analyze();
+    }
+
     public SemanticAnalyzer(ParseNode ASTree) {
+        this(ASTree, Traversal.RECURSIVE);
+    }
+
+    public SemanticAnalyzer(ParseNode ASTree, Traversal traversal) {
         this.ASTree = ASTree;
+        this.traversal = traversal;
     }
 
     public ParseNode analyze() {
-        ASTree.accept(new SemanticAnalysisVisitor());
+        traversal.traverse(ASTree, new SemanticAnalysisVisitor());
 
         return ASTree;
     }
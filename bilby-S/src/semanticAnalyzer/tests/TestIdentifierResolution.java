@@ -0,0 +1,78 @@
+package semanticAnalyzer.tests;
+
+import static tests.SourceText.lex;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+import logging.BilbyLogger;
+import parseTree.ParseNode;
+import parseTree.nodeTypes.IdentifierNode;
+import parser.ArenaTreeBuilder;
+import parser.Parser;
+import semanticAnalyzer.SemanticAnalyzer;
+import semanticAnalyzer.types.PrimitiveType;
+import symbolTable.Scope;
+import tests.LoggedMessages;
+import tokens.IdentifierToken;
+
+public class TestIdentifierResolution extends TestCase {
+    private static final String PROGRAM = "main {\n imm a := 3;\n imm b := a > 2;\n print a $s b $n;\n}\n";
+
+    private LoggedMessages logged;
+    private List<String> messages;
+
+    protected void setUp() {
+        logged = LoggedMessages.listen("compiler");
+        messages = logged.messages();
+        BilbyLogger.setMaximumErrorMessages(Integer.MAX_VALUE);
+    }
+
+    protected void tearDown() {
+        logged.stop();
+    }
+
+    public void testUsesBoundToDeclarations() {
+        ParseNode tree = SemanticAnalyzer.analyze(Parser.parse(lex(PROGRAM)));
+        ParseNode block = tree.child(0);
+        IdentifierNode declaredA = (IdentifierNode) block.child(0).child(0);
+        IdentifierNode usedA = (IdentifierNode) block.child(1).child(1).child(0);
+        IdentifierNode printedB = (IdentifierNode) block.child(2).child(2);
+
+        assertTrue(messages.isEmpty());
+        assertSame(declaredA.getBinding(), usedA.getBinding());
+        assertEquals(PrimitiveType.INTEGER, usedA.getType());
+        assertEquals(PrimitiveType.BOOLEAN, printedB.getType());
+        assertSame(tree.getScope(), usedA.getDeclarationScope());
+    }
+
+    public void testArenaTree() {
+        ParseNode tree = SemanticAnalyzer.analyze(ArenaTreeBuilder.parse(lex(PROGRAM)));
+        ParseNode block = tree.child(0);
+        IdentifierNode declaredA = (IdentifierNode) block.child(0).child(0);
+        IdentifierNode usedA = (IdentifierNode) block.child(1).child(1).child(0);
+
+        assertTrue(messages.isEmpty());
+        assertSame(declaredA.getBinding(), usedA.getBinding());
+        assertEquals(PrimitiveType.BOOLEAN, block.child(1).getType());
+    }
+
+    public void testUseBeforeDefinition() {
+        SemanticAnalyzer.analyze(Parser.parse(lex("main { print c; imm c := 1; print c; }")));
+
+        assertEquals(1, messages.size());
+        assertTrue(messages.get(0).startsWith("identifier c used before defined"));
+    }
+
+    public void testScopeBindingLooksOutward() {
+        ParseNode tree = Parser.parse(lex("main { imm d := 1; }"));
+        int symbol = ((IdentifierToken) tree.child(0).child(0).child(0).getToken()).getSymbol();
+        Scope program = Scope.createProgramScope();
+        Scope inner = program.createSubscope();
+
+        assertNull(inner.scopeBinding(symbol));
+        program.createBinding((IdentifierNode) tree.child(0).child(0).child(0), PrimitiveType.INTEGER);
+        assertSame(program, inner.scopeBinding(symbol));
+        assertNull(Scope.nullInstance().scopeBinding(symbol));
+    }
+}
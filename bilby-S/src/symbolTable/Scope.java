@@ -4,6 +4,7 @@ import inputHandler.TextLocation;
 import logging.BilbyLogger;
 import parseTree.nodeTypes.IdentifierNode;
 import semanticAnalyzer.types.Type;
+import tokens.IdentifierToken;
 import tokens.Token;
 
 public class Scope {
@@ -51,6 +52,21 @@ public class Scope {
         return symbolTable;
     }
 
+    /**
+     * @return the innermost of this scope and the scopes enclosing it that
+     *         binds symbol, or null if none does.
+     */
+    public Scope scopeBinding(int symbol) {
+        Scope scope = this;
+        while (!scope.symbolTable.containsKey(symbol)) {
+            if (scope.baseScope == scope) {
+                return null;
+            }
+            scope = scope.baseScope;
+        }
+        return scope;
+    }
+
     ///////////////////////////////////////////////////////////////////////
     // memory allocation
     // must call leave() when destroying/leaving a scope.
@@ -65,12 +81,11 @@ public class Scope {
     ///////////////////////////////////////////////////////////////////////
     // bindings
     public Binding createBinding(IdentifierNode identifierNode, Type type) {
-        Token token = identifierNode.getToken();
+        IdentifierToken token = identifierNode.identifierToken();
         symbolTable.errorIfAlreadyDefined(token);
 
-        String lexeme = token.getLexeme();
-        Binding binding = allocateNewBinding(type, token.getLocation(), lexeme);
-        symbolTable.install(lexeme, binding);
+        Binding binding = allocateNewBinding(type, token.getLocation(), token.getLexeme());
+        symbolTable.install(token.getSymbol(), binding);
 
         return binding;
     }
@@ -1,53 +1,114 @@
 package symbolTable;
 
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 import logging.BilbyLogger;
 
+import tokens.IdentifierToken;
 import tokens.Token;
 
+/**
+ * Bindings keyed by identifier symbol (see IdentifierToken.getSymbol()), held
+ * in an open-addressing int hash table, so that a lookup is a probe on an int
+ * rather than a String hash and comparison.
+ */
 public class SymbolTable {
-    private Map<String, Binding> table;
+    private static final int STARTING_CAPACITY = 8;
+
+    private int[] slots; // entry index + 1, or 0 for an empty slot
+    private int slotShift; // 32 - log2(slots.length): a hash keeps its top bits
+    private int[] symbols; // by entry, in order of installation
+    private Binding[] bindings; // by entry
+    private int size;
 
     public SymbolTable() {
-        table = new HashMap<String, Binding>();
+        slots = new int[2 * STARTING_CAPACITY];
+        slotShift = 32 - Integer.numberOfTrailingZeros(slots.length);
+        symbols = new int[STARTING_CAPACITY];
+        bindings = new Binding[STARTING_CAPACITY];
+        size = 0;
     }
 
     ////////////////////////////////////////////////////////////////
     // installation and lookup of identifiers
 
-    public Binding install(String identifier, Binding binding) {
-        table.put(identifier, binding);
+    public Binding install(int symbol, Binding binding) {
+        int slot = slotOf(symbol);
+        if (slots[slot] != 0) {
+            bindings[slots[slot] - 1] = binding;
+            return binding;
+        }
+
+        if (size == symbols.length) {
+            symbols = Arrays.copyOf(symbols, size * 2);
+            bindings = Arrays.copyOf(bindings, size * 2);
+        }
+        symbols[size] = symbol;
+        bindings[size] = binding;
+        slots[slot] = ++size;
+        if (2 * size > slots.length) {
+            rehash();
+        }
         return binding;
     }
 
-    public Binding lookup(String identifier) {
-        return table.getOrDefault(identifier, Binding.nullInstance());
+    public Binding lookup(int symbol) {
+        int entry = slots[slotOf(symbol)];
+        return entry == 0 ? Binding.nullInstance() : bindings[entry - 1];
+    }
+
+    // the slot holding symbol, or the empty slot where it would go. The slot
+    // to start from is the top bits of a Fibonacci hash, as many as the table
+    // needs at any size.
+    private int slotOf(int symbol) {
+        int mask = slots.length - 1;
+        int slot = (symbol * 0x9E3779B1) >>> slotShift;
+        while (slots[slot] != 0 && symbols[slots[slot] - 1] != symbol) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        slotShift--;
+        for (int entry = 0; entry < size; entry++) {
+            slots[slotOf(symbols[entry])] = entry + 1;
+        }
     }
 
     ///////////////////////////////////////////////////////////////////////
     // Map delegates
 
-    public boolean containsKey(String identifier) {
-        return table.containsKey(identifier);
+    public boolean containsKey(int symbol) {
+        return slots[slotOf(symbol)] != 0;
     }
 
+    /**
+     * @return the lexemes of the identifiers bound here.
+     */
     public Set<String> keySet() {
-        return table.keySet();
+        Set<String> result = new LinkedHashSet<String>();
+        for (Binding binding : values()) {
+            result.add(binding.getLexeme());
+        }
+        return result;
     }
 
     public Collection<Binding> values() {
-        return table.values();
+        List<Binding> result = Arrays.asList(bindings).subList(0, size);
+        return result;
     }
 
     ///////////////////////////////////////////////////////////////////////
     // error reporting
 
-    public void errorIfAlreadyDefined(Token token) {
-        if (containsKey(token.getLexeme())) {
+    public void errorIfAlreadyDefined(IdentifierToken token) {
+        if (containsKey(token.getSymbol())) {
             multipleDefinitionError(token);
         }
     }
@@ -62,9 +123,9 @@ public class SymbolTable {
 
     public String toString() {
         StringBuffer result = new StringBuffer("    symbol table: \n");
-        table.entrySet().forEach((entry) -> {
-            result.append("        " + entry + "\n");
-        });
+        for (Binding binding : values()) {
+            result.append("        " + binding.getLexeme() + "=" + binding + "\n");
+        }
         return result.toString();
     }
 }
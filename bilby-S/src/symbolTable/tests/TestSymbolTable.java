@@ -0,0 +1,46 @@
+package symbolTable.tests;
+
+import inputHandler.TextLocation;
+import junit.framework.TestCase;
+import semanticAnalyzer.types.PrimitiveType;
+import symbolTable.Binding;
+import symbolTable.MemoryLocation;
+import symbolTable.SymbolTable;
+
+public class TestSymbolTable extends TestCase {
+    private static final int MANY_SYMBOLS = 400000;
+
+    public void testInstallAndLookup() {
+        SymbolTable table = new SymbolTable();
+        Binding seven = binding("seven");
+
+        assertFalse(table.containsKey(7));
+        table.install(7, seven);
+        assertTrue(table.containsKey(7));
+        assertSame(seven, table.lookup(7));
+        assertSame(Binding.nullInstance(), table.lookup(8));
+    }
+
+    // symbols are dense from 0, as a SymbolPool hands them out; they must
+    // spread over the whole table however large it grows.
+    public void testManySymbols() {
+        SymbolTable table = new SymbolTable();
+        Binding[] bindings = new Binding[MANY_SYMBOLS];
+        for (int symbol = 0; symbol < MANY_SYMBOLS; symbol++) {
+            bindings[symbol] = binding("v" + symbol);
+            table.install(symbol, bindings[symbol]);
+        }
+
+        assertEquals(MANY_SYMBOLS, table.values().size());
+        for (int symbol = 0; symbol < MANY_SYMBOLS; symbol++) {
+            assertSame(bindings[symbol], table.lookup(symbol));
+        }
+        assertFalse(table.containsKey(MANY_SYMBOLS));
+        assertFalse(table.containsKey(-1));
+    }
+
+    private Binding binding(String lexeme) {
+        return new Binding(PrimitiveType.INTEGER, new TextLocation("text", 0, 0), MemoryLocation.nullInstance(),
+                lexeme);
+    }
+}
@@ -0,0 +1,54 @@
+package tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Collects the messages logged to a compiler logger (and the loggers under
+ * it), and keeps them off the console, from listen() to stop(). Tests start it
+ * in setUp() and stop it in tearDown(), or around the code they check.
+ */
+public class LoggedMessages extends Handler {
+    private final Logger logger;
+    private final List<String> messages = new ArrayList<String>();
+
+    private LoggedMessages(Logger logger) {
+        this.logger = logger;
+    }
+
+    public static LoggedMessages listen(String loggerName) {
+        LoggedMessages result = new LoggedMessages(Logger.getLogger(loggerName));
+        result.logger.addHandler(result);
+        result.logger.setUseParentHandlers(false);
+        return result;
+    }
+
+    public void stop() {
+        logger.removeHandler(this);
+        logger.setUseParentHandlers(true);
+    }
+
+    /**
+     * @return the messages logged so far, in order. The list is live: it grows
+     *         as messages are logged, and may be cleared.
+     */
+    public List<String> messages() {
+        return messages;
+    }
+
+    //////////////////////////////////////////////////////////////////////////////
+    // Handler
+
+    public synchronized void publish(LogRecord record) {
+        messages.add(record.getMessage());
+    }
+
+    public void flush() {
+    }
+
+    public void close() {
+    }
+}
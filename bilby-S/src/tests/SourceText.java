@@ -0,0 +1,26 @@
+package tests;
+
+import inputHandler.PushbackCharStream;
+import inputHandler.SourceBuffer;
+import lexicalAnalyzer.LexicalAnalyzer;
+import lexicalAnalyzer.TokenBuffer;
+
+/**
+ * Sources for tests given as text, in a file named "text" with "\n" line
+ * terminators.
+ */
+public class SourceText {
+    public static final String FILENAME = "text";
+
+    public static SourceBuffer source(String text) {
+        return SourceBuffer.fromText(FILENAME, text, "\n");
+    }
+
+    public static LexicalAnalyzer scanner(String text) {
+        return new LexicalAnalyzer(PushbackCharStream.make(source(text), 0));
+    }
+
+    public static TokenBuffer lex(String text) {
+        return TokenBuffer.lex(scanner(text));
+    }
+}
@@ -3,15 +3,26 @@ package tokens;
 import inputHandler.Locator;
 
 public class IdentifierToken extends TokenImp {
-    protected IdentifierToken(Locator locator, String lexeme) {
-        super(locator, lexeme.intern());
+    private int symbol;
+
+    protected IdentifierToken(Locator locator, String lexeme, int symbol) {
+        super(locator, lexeme);
+        this.symbol = symbol;
     }
 
-    public static IdentifierToken make(Locator locator, String lexeme) {
-        IdentifierToken result = new IdentifierToken(locator, lexeme);
+    /**
+     * @param lexeme the lexeme as interned in the compilation's SymbolPool.
+     * @param symbol its symbol in that pool.
+     */
+    public static IdentifierToken make(Locator locator, String lexeme, int symbol) {
+        IdentifierToken result = new IdentifierToken(locator, lexeme, symbol);
         return result;
     }
 
+    public int getSymbol() {
+        return symbol;
+    }
+
     @Override
     protected String rawString() {
         return "identifier, " + getLexeme();
@@ -2,13 +2,22 @@ package tokens;
 
 import lexicalAnalyzer.Lextant;
 import inputHandler.Locator;
+import inputHandler.PackedLocation;
+import inputHandler.TextLocation;
 
-public final class LextantToken extends TokenImp {
+/**
+ * Token for a keyword or punctuator. Since its lexeme is fixed by its Lextant,
+ * it stores only the Lextant and a packed location (see PackedLocation): the
+ * lexeme comes from the Lextant, and a TextLocation is made only when asked
+ * for.
+ */
+public final class LextantToken implements Token {
 
     private Lextant lextant;
+    private long location;
 
-    private LextantToken(Locator locator, String lexeme, Lextant lextant) {
-        super(locator, lexeme);
+    private LextantToken(long location, Lextant lextant) {
+        this.location = location;
         this.lextant = lextant;
     }
 
@@ -24,11 +33,40 @@ public final class LextantToken extends TokenImp {
         return false;
     }
 
+    @Override
+    public String getLexeme() {
+        return lextant.getLexeme();
+    }
+
+    @Override
+    public TextLocation getLocation() {
+        return PackedLocation.toTextLocation(location);
+    }
+
+    /**
+     * @return the location of this token, packed.
+     */
+    public long getPackedLocation() {
+        return location;
+    }
+
     protected String rawString() {
         return lextant.toString();
     }
 
-    public static LextantToken make(Locator locator, String lexeme, Lextant lextant) {
-        return new LextantToken(locator, lexeme, lextant);
+    public String toString() {
+        return "(" + rawString() + ")";
+    }
+
+    public String fullString() {
+        return "(" + rawString() + ", " + getLocation() + ", " + getLexeme() + ")";
+    }
+
+    public static LextantToken make(Locator locator, Lextant lextant) {
+        return new LextantToken(PackedLocation.pack(locator.getLocation()), lextant);
+    }
+
+    public static LextantToken make(long packedLocation, Lextant lextant) {
+        return new LextantToken(packedLocation, lextant);
     }
 }
@@ -18,8 +18,12 @@ public class NumberToken extends TokenImp {
     }
 
     public static NumberToken make(Locator locator, String lexeme) {
+        return make(locator, lexeme, Integer.parseInt(lexeme));
+    }
+
+    public static NumberToken make(Locator locator, String lexeme, int value) {
         NumberToken result = new NumberToken(locator, lexeme);
-        result.setValue(Integer.parseInt(lexeme));
+        result.setValue(value);
         return result;
     }
 